@@ -0,0 +1,74 @@
+package project.newchat.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+import project.newchat.chatmsg.dto.ChatMsgDto;
+import project.newchat.chatmsg.service.RecentChatMsgBuffer;
+import project.newchat.chatroom.domain.ChatRoom;
+import project.newchat.chatroom.dto.ChatRoomDto;
+import project.newchat.common.type.ResponseMessage;
+import project.newchat.common.util.ResponseUtils;
+
+/**
+ * 응답 DTO 생성 비용 (채팅방 DTO 매핑, 응답 envelope, 최근 메시지 페이지)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DtoMappingBenchmark {
+
+  private static final Long ROOM_ID = 1L;
+
+  private ChatRoom chatRoom;
+
+  private List<ChatRoomDto> rooms;
+
+  private RecentChatMsgBuffer recentChatMsgBuffer;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    chatRoom = ChatRoom.builder()
+        .id(1L)
+        .title("벤치마크 채팅방")
+        .roomCreator(1L)
+        .userCountMax(100)
+        .currentUserCount(10L)
+        .createdAt(LocalDateTime.now())
+        .updatedAt(LocalDateTime.now())
+        .build();
+    rooms = List.of(ChatRoomDto.of(chatRoom), ChatRoomDto.of(chatRoom), ChatRoomDto.of(chatRoom));
+
+    recentChatMsgBuffer = new RecentChatMsgBuffer(100, 10);
+    recentChatMsgBuffer.findAfter(ROOM_ID, null, 1, List::of);
+    for (long id = 1; id <= 100; id++) {
+      recentChatMsgBuffer.append(ROOM_ID, new ChatMsgDto(
+          id, 1L, "nickname", "message" + id, LocalDateTime.now()));
+    }
+  }
+
+  @Benchmark
+  public ChatRoomDto chatRoomDtoOf() {
+    return ChatRoomDto.of(chatRoom);
+  }
+
+  @Benchmark
+  public ResponseEntity<Object> responseEnvelope() {
+    return ResponseUtils.ok(ResponseMessage.CHAT_ROOM_MSG_LIST_SELECT_SUCCESS, rooms);
+  }
+
+  // 최신 메시지 한 페이지 (getRoomChatMsgList 의 기본 조회)
+  @Benchmark
+  public List<ChatMsgDto> latestMsgPage() {
+    return recentChatMsgBuffer.findBefore(ROOM_ID, null, 10, List::of);
+  }
+}
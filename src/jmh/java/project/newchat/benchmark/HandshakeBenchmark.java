@@ -0,0 +1,92 @@
+package project.newchat.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import project.newchat.chatroom.service.RoomMembershipIndex;
+import project.newchat.common.config.ChatHandshakeInterceptor;
+import project.newchat.common.routing.RoomRouter;
+import project.newchat.userchatroom.repository.UserChatRoomRepository;
+
+/**
+ * 핸드셰이크에서 유저/방을 확인하는 비용 (URI 파싱 + 참여자 인덱스 조회).
+ * 연결당 한 번만 일어나고 메시지마다 반복되지 않는다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HandshakeBenchmark {
+
+  private static final Long USER_ID = 7L;
+
+  private ChatHandshakeInterceptor interceptor;
+
+  private ServletServerHttpRequest pathRequest;
+
+  private ServletServerHttpRequest queryRequest;
+
+  private ServletServerHttpResponse response;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    interceptor = new ChatHandshakeInterceptor(
+        new RoomMembershipIndex(memberRepository(), 10_000),
+        new RoomRouter(List.of(), "", 160));
+
+    MockHttpServletRequest path = new MockHttpServletRequest("GET", "/ws/chat/123456789");
+    path.getSession().setAttribute("user", USER_ID);
+    pathRequest = new ServletServerHttpRequest(path);
+
+    MockHttpServletRequest query = new MockHttpServletRequest("GET", "/chat");
+    query.setQueryString("roomId=123456789");
+    query.getSession().setAttribute("user", USER_ID);
+    queryRequest = new ServletServerHttpRequest(query);
+
+    response = new ServletServerHttpResponse(new MockHttpServletResponse());
+  }
+
+  @Benchmark
+  public Map<String, Object> pathRoomId() {
+    Map<String, Object> attributes = new HashMap<>();
+    interceptor.beforeHandshake(pathRequest, response, null, attributes);
+    return attributes;
+  }
+
+  @Benchmark
+  public Map<String, Object> queryRoomId() {
+    Map<String, Object> attributes = new HashMap<>();
+    interceptor.beforeHandshake(queryRequest, response, null, attributes);
+    return attributes;
+  }
+
+  // 모든 방에 USER_ID 만 참여한 저장소
+  private static UserChatRoomRepository memberRepository() {
+    return (UserChatRoomRepository) Proxy.newProxyInstance(
+        UserChatRoomRepository.class.getClassLoader(),
+        new Class<?>[]{UserChatRoomRepository.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "findUserChatRoomByChatRoom_Id":
+              return List.of(USER_ID);
+            case "existsByUserIdAndChatRoomId":
+              return USER_ID.equals(args[0]);
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+  }
+}
@@ -0,0 +1,79 @@
+package project.newchat.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+import project.newchat.common.broadcast.InProcessChatBroadcastBus;
+import project.newchat.common.config.ChatHandshakeInterceptor;
+import project.newchat.common.handler.ChatSessionRegistry;
+import project.newchat.common.handler.ChatWebSocketHandler;
+import project.newchat.common.metrics.ChatMetrics;
+import project.newchat.common.type.SlowConsumerPolicy;
+
+/**
+ * 방 하나에 메시지 한 건을 브로드캐스트하는 비용 (직렬화 1회 + 세션 수만큼 전송)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RoomFanOutBenchmark {
+
+  private static final Long ROOM_ID = 1L;
+
+  @Param({"10", "100", "1000"})
+  private int roomSize;
+
+  private InProcessChatBroadcastBus bus;
+
+  private ChatEnvelope envelope;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    bus = new InProcessChatBroadcastBus();
+    ChatWebSocketHandler handler = new ChatWebSocketHandler(new ChatSessionRegistry(),
+        new ObjectMapper().registerModule(new JavaTimeModule()), null, bus,
+        new ChatMetrics(new SimpleMeterRegistry()));
+    set(handler, "sendTimeLimit", 5000);
+    set(handler, "sendBufferSizeLimit", 512 * 1024);
+    set(handler, "slowConsumerPolicy", SlowConsumerPolicy.DROP);
+
+    for (int i = 0; i < roomSize; i++) {
+      StubWebSocketSession session = new StubWebSocketSession(String.valueOf(i));
+      session.getAttributes().put(ChatHandshakeInterceptor.ROOM_ID, ROOM_ID);
+      handler.afterConnectionEstablished(session);
+    }
+    envelope = ChatEnvelope.builder()
+        .messageId(1L)
+        .roomId(ROOM_ID)
+        .senderId(1L)
+        .from("nickname")
+        .message("안녕하세요 벤치마크 메시지입니다")
+        .sendTime(LocalDateTime.now())
+        .build();
+  }
+
+  @Benchmark
+  public void broadcast() {
+    bus.publish(envelope);
+  }
+
+  // @Value 로 주입되는 설정값
+  private static void set(Object target, String name, Object value) throws Exception {
+    Field field = target.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+}
@@ -0,0 +1,111 @@
+package project.newchat.benchmark;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * 네트워크 전송 없이 보낸 바이트 수만 세는 세션 (벤치마크용)
+ */
+class StubWebSocketSession implements WebSocketSession {
+
+  private final String id;
+
+  private final Map<String, Object> attributes = new HashMap<>();
+
+  long sentBytes;
+
+  StubWebSocketSession(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public URI getUri() {
+    return null;
+  }
+
+  @Override
+  public HttpHeaders getHandshakeHeaders() {
+    return HttpHeaders.EMPTY;
+  }
+
+  @Override
+  public Map<String, Object> getAttributes() {
+    return attributes;
+  }
+
+  @Override
+  public Principal getPrincipal() {
+    return null;
+  }
+
+  @Override
+  public InetSocketAddress getLocalAddress() {
+    return null;
+  }
+
+  @Override
+  public InetSocketAddress getRemoteAddress() {
+    return null;
+  }
+
+  @Override
+  public String getAcceptedProtocol() {
+    return null;
+  }
+
+  @Override
+  public void setTextMessageSizeLimit(int messageSizeLimit) {
+  }
+
+  @Override
+  public int getTextMessageSizeLimit() {
+    return Integer.MAX_VALUE;
+  }
+
+  @Override
+  public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+  }
+
+  @Override
+  public int getBinaryMessageSizeLimit() {
+    return Integer.MAX_VALUE;
+  }
+
+  @Override
+  public List<WebSocketExtension> getExtensions() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void sendMessage(WebSocketMessage<?> message) {
+    sentBytes += message.getPayloadLength();
+  }
+
+  @Override
+  public boolean isOpen() {
+    return true;
+  }
+
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public void close(CloseStatus status) {
+  }
+}
@@ -5,18 +5,23 @@ import java.util.List;
 import javax.servlet.http.HttpSession;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import project.newchat.chatmsg.domain.request.ChatMsgRequest;
 import project.newchat.chatmsg.domain.response.ChatMsgResponse;
 import project.newchat.chatmsg.dto.ChatMsgDto;
+import project.newchat.chatmsg.dto.ChatMsgSearchDto;
 import project.newchat.chatmsg.service.ChatMsgService;
+import project.newchat.chatmsg.service.ChatMsgSseHub;
 import project.newchat.common.config.LoginCheck;
 import project.newchat.common.type.ResponseMessage;
 import project.newchat.common.util.ResponseUtils;
@@ -28,6 +33,8 @@ public class ChatMsgController {
 
   private final ChatMsgService chatMsgService;
 
+  private final ChatMsgSseHub chatMsgSseHub;
+
   @PostMapping("/msg/{roomId}")
   @LoginCheck
   public ResponseEntity<Object> sendChat(
@@ -39,14 +46,18 @@ public class ChatMsgController {
       return ResponseUtils.ok(ResponseMessage.SEND_CHAT_MSG_SUCCESS, response);
   }
 
+  // lastId: 이후 메시지(오래된 순), beforeId: 이전 메시지(최신순), 둘 다 없으면 최신 메시지부터
   @GetMapping("/msg/{roomId}")
   @LoginCheck
   public ResponseEntity<Object> getChatList(
       @PathVariable Long roomId,
       @RequestParam(required = false) Long lastId,
+      @RequestParam(required = false) Long beforeId,
+      @RequestParam(required = false) Integer size,
       HttpSession session) {
     Long userId = (Long) session.getAttribute("user");
-    List<ChatMsgDto> roomChatMsgList = chatMsgService.getRoomChatMsgList(roomId, userId, lastId);
+    List<ChatMsgDto> roomChatMsgList = chatMsgService
+        .getRoomChatMsgList(roomId, userId, lastId, beforeId, size);
     if (roomChatMsgList != null) {
       return ResponseUtils
           .ok(ResponseMessage.CHAT_ROOM_MSG_LIST_SELECT_SUCCESS, roomChatMsgList);
@@ -55,4 +66,44 @@ public class ChatMsgController {
           .notFound(ResponseMessage.NOT_EXIST_CHAT_ROOM_MSG_LIST);
     }
   }
-}
\ No newline at end of file
+
+  // 방 안의 메시지 검색 (최신순), 다음 페이지는 마지막 결과의 chatMsgId 를 beforeId 로
+  @GetMapping("/msg/{roomId}/search")
+  @LoginCheck
+  public ResponseEntity<Object> searchRoomChat(
+      @PathVariable Long roomId,
+      @RequestParam String q,
+      @RequestParam(required = false) Long beforeId,
+      @RequestParam(required = false) Integer size,
+      HttpSession session) {
+    Long userId = (Long) session.getAttribute("user");
+    List<ChatMsgSearchDto> result = chatMsgService
+        .searchRoomChatMsg(roomId, userId, q, beforeId, size);
+    return ResponseUtils.ok(ResponseMessage.CHAT_MSG_SEARCH_SUCCESS, result);
+  }
+
+  // 참여 중인 모든 방의 메시지 검색 (최신순)
+  @GetMapping("/msg/search")
+  @LoginCheck
+  public ResponseEntity<Object> searchMyChat(
+      @RequestParam String q,
+      @RequestParam(required = false) Long beforeId,
+      @RequestParam(required = false) Integer size,
+      HttpSession session) {
+    Long userId = (Long) session.getAttribute("user");
+    List<ChatMsgSearchDto> result = chatMsgService.searchMyChatMsg(userId, q, beforeId, size);
+    return ResponseUtils.ok(ResponseMessage.CHAT_MSG_SEARCH_SUCCESS, result);
+  }
+
+  // SSE 스트림: lastId(또는 재연결 시 Last-Event-ID) 이후 메시지를 보낸 뒤 새 메시지를 계속 전송
+  @GetMapping(value = "/msg/{roomId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @LoginCheck
+  public SseEmitter streamChat(
+      @PathVariable Long roomId,
+      @RequestParam(required = false) Long lastId,
+      @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+      HttpSession session) {
+    Long userId = (Long) session.getAttribute("user");
+    return chatMsgSseHub.subscribe(roomId, userId, lastEventId != null ? lastEventId : lastId);
+  }
+}
@@ -5,7 +5,6 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
@@ -13,7 +12,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
 import project.newchat.chatroom.domain.ChatRoom;
+import project.newchat.common.id.ChatIdentifierGenerator;
 import project.newchat.user.domain.User;
 
 @Entity
@@ -22,8 +23,10 @@ import project.newchat.user.domain.User;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatMsg {
+    // ID는 애플리케이션에서 발급 (write-behind 저장 전에 응답하기 위함)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = ChatIdentifierGenerator.NAME)
+    @GenericGenerator(name = ChatIdentifierGenerator.NAME, strategy = ChatIdentifierGenerator.STRATEGY)
     @Column(name = "chat_msg_id")
     private Long id;
 
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import project.newchat.common.id.JsonId;
 
 @Getter
 @Setter
@@ -13,6 +14,9 @@ import lombok.Setter;
 @AllArgsConstructor
 @Builder
 public class ChatMsgResponse {
+  @JsonId
+  private Long chatMsgId;
+  @JsonId
   private Long roomId;
   private String from; // 누가? (사용자)
   private String message;
@@ -0,0 +1,29 @@
+package project.newchat.chatmsg.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import project.newchat.common.id.JsonId;
+import project.newchat.common.type.ChatEnvelopeType;
+
+/**
+ * 서버가 방에 브로드캐스트하는 채팅 메시지 (한 번만 생성, 직렬화되어 모든 수신자가 공유)
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatEnvelope {
+  @JsonId
+  private Long messageId;
+  @JsonId
+  private Long roomId;
+  private Long senderId;
+  private String from; // 보낸 유저 닉네임
+  private String message;
+  private LocalDateTime sendTime;
+  @Builder.Default
+  private ChatEnvelopeType type = ChatEnvelopeType.MESSAGE;
+}
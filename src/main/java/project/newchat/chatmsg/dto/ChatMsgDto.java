@@ -5,12 +5,14 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import project.newchat.common.id.JsonId;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatMsgDto {
+  @JsonId
   private Long chatMsgId;
   private Long userId;
   private String nickname;
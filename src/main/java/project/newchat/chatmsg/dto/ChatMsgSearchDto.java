@@ -0,0 +1,29 @@
+package project.newchat.chatmsg.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import project.newchat.common.id.JsonId;
+
+// 검색 결과 (chatMsgId 는 이력 조회의 lastId/beforeId 로 그대로 사용 가능)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMsgSearchDto {
+  @JsonId
+  private Long roomId;
+  @JsonId
+  private Long chatMsgId;
+  private Long userId;
+  private String nickname;
+  private String message;
+  private LocalDateTime sendTime;
+
+  public static ChatMsgSearchDto of(Long roomId, ChatMsgDto chatMsg) {
+    return new ChatMsgSearchDto(roomId, chatMsg.getChatMsgId(), chatMsg.getUserId(),
+        chatMsg.getNickname(), chatMsg.getMessage(), chatMsg.getSendTime());
+  }
+}
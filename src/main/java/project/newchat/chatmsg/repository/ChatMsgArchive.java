@@ -0,0 +1,221 @@
+package project.newchat.chatmsg.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import project.newchat.chatmsg.dto.ChatMsgDto;
+
+/**
+ * 오래된 채팅 메시지 아카이브 (chat_msg 에서 옮겨온 메시지).
+ * 방마다 디렉터리 하나에 ID 오름차순 세그먼트 파일을 두고, 세그먼트가 segment-max-bytes 를 넘으면 새 파일로 넘어간다.
+ * 방의 아카이브는 watermark(마지막 아카이브 ID) 이하의 메시지를 모두 가지고 있고, 그보다 큰 ID 는 chat_msg 에 있다.
+ * 열어둔 방은 LRU 로 max-open-rooms 개까지만 보관한다.
+ * 파일은 이 서버의 로컬 디스크에만 있으므로 단일 서버 전용이다 (ChatMsgArchiver 참고).
+ */
+@Repository
+public class ChatMsgArchive {
+
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  private final Path dir;
+
+  private final int blockSize;
+
+  private final long segmentMaxBytes;
+
+  private final Map<Long, RoomArchive> rooms;
+
+  public ChatMsgArchive(
+      @Value("${chat.msg.archive.dir:./chat-archive}") String dir,
+      @Value("${chat.msg.archive.block-size:128}") int blockSize,
+      @Value("${chat.msg.archive.segment-max-bytes:67108864}") long segmentMaxBytes,
+      @Value("${chat.msg.archive.max-open-rooms:1000}") int maxOpenRooms) {
+    this.dir = Paths.get(dir);
+    this.blockSize = blockSize;
+    this.segmentMaxBytes = segmentMaxBytes;
+    // accessOrder = true -> 가장 오래 사용되지 않은 방부터 제거
+    this.rooms = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, RoomArchive> eldest) {
+        return size() > maxOpenRooms;
+      }
+    });
+  }
+
+  // 아카이브된 마지막 메시지 ID (없으면 0)
+  public long watermark(Long roomId) {
+    RoomArchive room = room(roomId);
+    synchronized (room) {
+      return room.watermark();
+    }
+  }
+
+  // lastId 이후 메시지 (ID 오름차순)
+  public List<ChatMsgDto> findAfter(Long roomId, long lastId, int limit) {
+    RoomArchive room = room(roomId);
+    List<ChatMsgDto> result = new ArrayList<>(limit);
+    synchronized (room) {
+      try {
+        for (ChatMsgSegment segment : room.segments) {
+          if (result.size() >= limit) {
+            break;
+          }
+          if (!segment.isEmpty() && segment.lastId() > lastId) {
+            segment.readAfter(lastId, limit, result);
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return result;
+  }
+
+  // beforeId 이전 메시지 (ID 내림차순)
+  public List<ChatMsgDto> findBefore(Long roomId, long beforeId, int limit) {
+    RoomArchive room = room(roomId);
+    List<ChatMsgDto> result = new ArrayList<>(limit);
+    synchronized (room) {
+      try {
+        for (int i = room.segments.size() - 1; i >= 0 && result.size() < limit; i--) {
+          ChatMsgSegment segment = room.segments.get(i);
+          if (!segment.isEmpty() && segment.firstId() < beforeId) {
+            segment.readBefore(beforeId, limit, result);
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 메시지 추가 (ID 오름차순, watermark 보다 큰 ID 만). 반환 시점에 디스크에 기록되어 있다.
+   * 세그먼트마다 채널을 한 번만 열어서 블록을 이어 쓰고, 끝날 때 한 번 디스크에 반영한다.
+   */
+  public void append(Long roomId, List<ChatMsgDto> chatMsgs) {
+    if (chatMsgs.isEmpty()) {
+      return;
+    }
+    RoomArchive room = room(roomId);
+    synchronized (room) {
+      if (chatMsgs.get(0).getChatMsgId() <= room.watermark()) {
+        throw new IllegalArgumentException("이미 아카이브된 메시지입니다. roomId=" + roomId);
+      }
+      try {
+        try {
+          Files.createDirectories(room.dir);
+          for (int from = 0; from < chatMsgs.size(); from += blockSize) {
+            List<ChatMsgDto> block = chatMsgs.subList(from,
+                Math.min(from + blockSize, chatMsgs.size()));
+            segmentFor(room, block.get(0).getChatMsgId()).append(block);
+          }
+        } finally {
+          for (ChatMsgSegment segment : room.segments) {
+            segment.finishAppend();
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    // 쓰는 동안 LRU 에서 빠졌다가 다시 열린 인스턴스가 있으면 기록한 인스턴스로 교체
+    rooms.put(roomId, room);
+  }
+
+  // 방 삭제 시 아카이브 파일도 삭제
+  public void deleteRoom(Long roomId) {
+    RoomArchive room = room(roomId);
+    synchronized (room) {
+      rooms.remove(roomId);
+      if (!Files.exists(room.dir)) {
+        return;
+      }
+      try (Stream<Path> files = Files.list(room.dir)) {
+        for (Path file : files.collect(Collectors.toList())) {
+          Files.delete(file);
+        }
+        Files.delete(room.dir);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  private ChatMsgSegment segmentFor(RoomArchive room, long firstId) {
+    List<ChatMsgSegment> segments = room.segments;
+    if (segments.isEmpty() || segments.get(segments.size() - 1).sizeBytes() >= segmentMaxBytes) {
+      // 파일 이름 = 첫 메시지 ID (0 으로 채워서 이름순 = ID 순)
+      segments.add(ChatMsgSegment.create(
+          room.dir.resolve(String.format("%020d", firstId) + SEGMENT_SUFFIX)));
+    }
+    return segments.get(segments.size() - 1);
+  }
+
+  private RoomArchive room(Long roomId) {
+    RoomArchive room = rooms.get(roomId);
+    if (room != null) {
+      return room;
+    }
+    // 파일 열기는 락 밖에서, 먼저 열린 인스턴스가 있으면 그 인스턴스를 사용
+    RoomArchive loaded = open(roomId);
+    RoomArchive current = rooms.putIfAbsent(roomId, loaded);
+    return current == null ? loaded : current;
+  }
+
+  private RoomArchive open(Long roomId) {
+    Path roomDir = dir.resolve(String.valueOf(roomId));
+    RoomArchive room = new RoomArchive(roomDir);
+    if (!Files.isDirectory(roomDir)) {
+      return room;
+    }
+    try (Stream<Path> files = Files.list(roomDir)) {
+      List<Path> paths = files
+          .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+          .collect(Collectors.toList());
+      for (Path path : paths) {
+        ChatMsgSegment segment = ChatMsgSegment.open(path);
+        if (!segment.isEmpty()) {
+          room.segments.add(segment);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return room;
+  }
+
+  private static class RoomArchive {
+
+    private final Path dir;
+
+    private final List<ChatMsgSegment> segments = new ArrayList<>();
+
+    RoomArchive(Path dir) {
+      this.dir = dir;
+    }
+
+    long watermark() {
+      for (int i = segments.size() - 1; i >= 0; i--) {
+        if (!segments.get(i).isEmpty()) {
+          return segments.get(i).lastId();
+        }
+      }
+      return 0L;
+    }
+  }
+}
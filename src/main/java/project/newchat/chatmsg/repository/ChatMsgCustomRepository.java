@@ -2,8 +2,15 @@ package project.newchat.chatmsg.repository;
 
 
 import java.util.List;
-import project.newchat.chatmsg.domain.ChatMsg;
+import project.newchat.chatmsg.dto.ChatMsgDto;
 
 public interface ChatMsgCustomRepository {
-  List<ChatMsg> findChatRoomIdByChatMsg(Long chatMsg, Long lastId);
+  // lastId 이후 메시지 (ID 오름차순)
+  List<ChatMsgDto> findChatRoomIdByChatMsg(Long chatMsg, Long lastId, int limit);
+
+  // beforeId 이전 메시지 (ID 내림차순, beforeId 가 null 이면 최신 메시지부터)
+  List<ChatMsgDto> findChatRoomIdByChatMsgBefore(Long chatMsg, Long beforeId, int limit);
+
+  // 방의 메시지 중 ids 에 해당하는 메시지 (ID 내림차순, 없는 ID 는 빠진다)
+  List<ChatMsgDto> findByIds(Long chatMsg, List<Long> ids);
 }
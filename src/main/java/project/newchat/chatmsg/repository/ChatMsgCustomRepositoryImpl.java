@@ -1,42 +1,153 @@
 package project.newchat.chatmsg.repository;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
-import project.newchat.chatmsg.domain.ChatMsg;
+import project.newchat.chatmsg.dto.ChatMsgDto;
+
+/*
+ chat_msg(최근) + ChatMsgArchive(오래된 메시지) 를 하나의 ID 순서로 조회
+ 방의 watermark 이하 ID 는 아카이브, 그보다 큰 ID 는 chat_msg 에 있다.
+ */
 @Repository
 @RequiredArgsConstructor
 public class ChatMsgCustomRepositoryImpl implements ChatMsgCustomRepository{
 
+  private static final String SELECT_DTO = "select new project.newchat.chatmsg.dto.ChatMsgDto("
+      + "c.id, u.id, u.nickname, c.message, c.sendTime) from ChatMsg c join c.user u ";
+
   private final EntityManager entityManager;
 
+  private final ChatMsgArchive chatMsgArchive;
+
+  @Override
+  public List<ChatMsgDto> findChatRoomIdByChatMsg(Long chatMsg, Long lastId, int limit) {
+    long watermark = chatMsgArchive.watermark(chatMsg);
+    long from = lastId == null ? 0L : lastId;
+    if (from >= watermark) {
+      return findAfterInTable(chatMsg, lastId, limit);
+    }
+    // 아카이브 구간에서 시작 -> 모자라면 chat_msg 에서 이어서 조회
+    List<ChatMsgDto> archived = chatMsgArchive.findAfter(chatMsg, from, limit);
+    if (archived.size() >= limit) {
+      return archived;
+    }
+    List<ChatMsgDto> result = new ArrayList<>(archived);
+    result.addAll(findAfterInTable(chatMsg, watermark, limit - archived.size()));
+    return result;
+  }
+
+  @Override
+  public List<ChatMsgDto> findChatRoomIdByChatMsgBefore(Long chatMsg, Long beforeId, int limit) {
+    long watermark = chatMsgArchive.watermark(chatMsg);
+    if (watermark == 0L) {
+      return findBeforeInTable(chatMsg, beforeId, limit);
+    }
+    List<ChatMsgDto> result = new ArrayList<>(limit);
+    if (beforeId == null || beforeId > watermark + 1) {
+      // 아카이브 후 아직 삭제되지 않은 행은 아카이브에서 읽으므로 제외
+      for (ChatMsgDto chatMsgDto : findBeforeInTable(chatMsg, beforeId, limit)) {
+        if (chatMsgDto.getChatMsgId() > watermark) {
+          result.add(chatMsgDto);
+        }
+      }
+      if (result.size() >= limit) {
+        return result;
+      }
+    }
+    long to = beforeId == null ? watermark + 1 : Math.min(beforeId, watermark + 1);
+    result.addAll(chatMsgArchive.findBefore(chatMsg, to, limit - result.size()));
+    return result;
+  }
+
+  @Override
+  public List<ChatMsgDto> findByIds(Long chatMsg, List<Long> ids) {
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    long watermark = chatMsgArchive.watermark(chatMsg);
+    List<Long> inTable = new ArrayList<>(ids.size());
+    List<ChatMsgDto> result = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      if (id > watermark) {
+        inTable.add(id);
+        continue;
+      }
+      // 아카이브는 블록 단위로 찾아서 한 건만 읽는다.
+      List<ChatMsgDto> archived = chatMsgArchive.findAfter(chatMsg, id - 1, 1);
+      if (!archived.isEmpty() && archived.get(0).getChatMsgId().equals(id)) {
+        result.add(archived.get(0));
+      }
+    }
+    if (!inTable.isEmpty()) {
+      result.addAll(entityManager
+          .createQuery(SELECT_DTO + "where c.chatRoom.id =: chatMsg and c.id in :ids",
+              ChatMsgDto.class)
+          .setParameter("chatMsg", chatMsg)
+          .setParameter("ids", inTable)
+          .getResultList());
+    }
+    result.sort(Comparator.comparing(ChatMsgDto::getChatMsgId).reversed());
+    return result;
+  }
+
   /*
-  select c.user_id, c.message, c.send_time
+  select c.chat_msg_id, u.user_id, u.nickname, c.message, c.send_time
   from chat_msg c
+  join user u on u.user_id = c.user_id
   where chat_room_id = 1
   order by c.chat_msg_id asc ;
    */
-  @Override
-  public List<ChatMsg> findChatRoomIdByChatMsg(Long chatMsg, Long lastId) {
-    String first = "select c from ChatMsg c where c.chatRoom.id =: chatMsg order by c.id asc";
-    String paging = "select c from ChatMsg c where c.chatRoom.id =: chatMsg and c.id > :lastId order by c.id asc";
+  private List<ChatMsgDto> findAfterInTable(Long chatMsg, Long lastId, int limit) {
+    String first = SELECT_DTO + "where c.chatRoom.id =: chatMsg order by c.id asc";
+    String paging = SELECT_DTO + "where c.chatRoom.id =: chatMsg and c.id > :lastId order by c.id asc";
 
-    TypedQuery<ChatMsg> query = null;
+    TypedQuery<ChatMsgDto> query = null;
 
     if (lastId == null) {
       query = entityManager
-          .createQuery(first, ChatMsg.class)
+          .createQuery(first, ChatMsgDto.class)
           .setParameter("chatMsg", chatMsg);
     } else {
       query = entityManager
-          .createQuery(paging, ChatMsg.class)
+          .createQuery(paging, ChatMsgDto.class)
           .setParameter("chatMsg", chatMsg)
           .setParameter("lastId", lastId);
     }
     return query
-        .setMaxResults(10)
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  /*
+  select c.chat_msg_id, u.user_id, u.nickname, c.message, c.send_time
+  from chat_msg c
+  join user u on u.user_id = c.user_id
+  where chat_room_id = 1 and c.chat_msg_id < :beforeId
+  order by c.chat_msg_id desc ;
+   */
+  private List<ChatMsgDto> findBeforeInTable(Long chatMsg, Long beforeId, int limit) {
+    String latest = SELECT_DTO + "where c.chatRoom.id =: chatMsg order by c.id desc";
+    String paging = SELECT_DTO + "where c.chatRoom.id =: chatMsg and c.id < :beforeId order by c.id desc";
+
+    TypedQuery<ChatMsgDto> query = null;
+
+    if (beforeId == null) {
+      query = entityManager
+          .createQuery(latest, ChatMsgDto.class)
+          .setParameter("chatMsg", chatMsg);
+    } else {
+      query = entityManager
+          .createQuery(paging, ChatMsgDto.class)
+          .setParameter("chatMsg", chatMsg)
+          .setParameter("beforeId", beforeId);
+    }
+    return query
+        .setMaxResults(limit)
         .getResultList();
   }
 }
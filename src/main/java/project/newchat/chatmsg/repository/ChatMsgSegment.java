@@ -0,0 +1,294 @@
+package project.newchat.chatmsg.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import project.newchat.chatmsg.dto.ChatMsgDto;
+
+/**
+ * 아카이브 세그먼트 파일 하나 (append-only, ID 오름차순).
+ * 블록 = 헤더 24바이트(압축 길이, 건수, 첫 ID, 마지막 ID) + deflate 로 압축한 메시지들.
+ * 블록마다 (첫 ID, 마지막 ID, 오프셋) 만 메모리에 두는 sparse 인덱스로 찾고, mmap 한 파일에서 해당 블록만 푼다.
+ * 아카이브 한 번(append 여러 번 + finishAppend) 동안은 채널 하나로 쓰고, mmap 은 다음 읽기에서 한 번만 다시 만든다.
+ * 동기화는 호출하는 쪽(방 단위)에서 한다.
+ */
+class ChatMsgSegment {
+
+  static final int HEADER_BYTES = 24;
+
+  private final Path path;
+
+  // validEnd 보다 짧으면 다음 읽기에서 다시 매핑
+  private MappedByteBuffer mapped;
+
+  // append 중에 열어둔 채널 (finishAppend 에서 닫는다)
+  private FileChannel writer;
+
+  // 온전히 기록된 마지막 블록의 끝 (쓰다 만 블록은 다음 append 때 잘라낸다)
+  private int validEnd;
+
+  private int blocks;
+
+  private long[] firstIds = new long[16];
+
+  private long[] lastIds = new long[16];
+
+  private int[] offsets = new int[16];
+
+  private ChatMsgSegment(Path path) {
+    this.path = path;
+  }
+
+  static ChatMsgSegment open(Path path) throws IOException {
+    ChatMsgSegment segment = new ChatMsgSegment(path);
+    segment.load();
+    return segment;
+  }
+
+  static ChatMsgSegment create(Path path) {
+    return new ChatMsgSegment(path);
+  }
+
+  private void load() throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, size);
+      int offset = 0;
+      while (offset + HEADER_BYTES <= size) {
+        int length = buffer.getInt(offset);
+        int count = buffer.getInt(offset + 4);
+        if (length <= 0 || count <= 0 || offset + HEADER_BYTES + (long) length > size) {
+          break;
+        }
+        index(buffer.getLong(offset + 8), buffer.getLong(offset + 16), offset);
+        offset += HEADER_BYTES + length;
+      }
+      mapped = buffer;
+      validEnd = offset;
+    }
+  }
+
+  /**
+   * 블록 하나를 추가한다. 디스크 반영은 finishAppend 에서 한 번에 기다린다.
+   */
+  void append(List<ChatMsgDto> chatMsgs) throws IOException {
+    byte[] payload = encode(chatMsgs);
+    long firstId = chatMsgs.get(0).getChatMsgId();
+    long lastId = chatMsgs.get(chatMsgs.size() - 1).getChatMsgId();
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+        .putInt(payload.length)
+        .putInt(chatMsgs.size())
+        .putLong(firstId)
+        .putLong(lastId);
+    header.flip();
+    ByteBuffer body = ByteBuffer.wrap(payload);
+
+    if (writer == null) {
+      writer = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      // 쓰다 만 블록은 잘라낸다.
+      writer.truncate(validEnd);
+      writer.position(validEnd);
+    }
+    try {
+      while (header.hasRemaining() || body.hasRemaining()) {
+        writer.write(new ByteBuffer[]{header, body});
+      }
+    } catch (IOException e) {
+      // 다음 append 에서 validEnd 부터 다시 쓴다.
+      closeWriter();
+      throw e;
+    }
+    int offset = validEnd;
+    validEnd += HEADER_BYTES + payload.length;
+    index(firstId, lastId, offset);
+  }
+
+  /**
+   * append 로 쓴 블록이 디스크에 반영될 때까지 기다리고 채널을 닫는다. (쓴 게 없으면 무시)
+   */
+  void finishAppend() throws IOException {
+    if (writer == null) {
+      return;
+    }
+    try {
+      writer.force(false);
+    } finally {
+      closeWriter();
+    }
+  }
+
+  private void closeWriter() throws IOException {
+    FileChannel channel = writer;
+    writer = null;
+    channel.close();
+  }
+
+  // lastId 이후 메시지를 오름차순으로 result 에 limit 개까지 추가
+  void readAfter(long lastId, int limit, List<ChatMsgDto> result) throws IOException {
+    for (int block = firstBlockEndingAfter(lastId); block < blocks && result.size() < limit;
+        block++) {
+      for (ChatMsgDto chatMsg : decode(block)) {
+        if (chatMsg.getChatMsgId() > lastId && result.size() < limit) {
+          result.add(chatMsg);
+        }
+      }
+    }
+  }
+
+  // beforeId 이전 메시지를 내림차순으로 result 에 limit 개까지 추가
+  void readBefore(long beforeId, int limit, List<ChatMsgDto> result) throws IOException {
+    for (int block = lastBlockStartingBefore(beforeId); block >= 0 && result.size() < limit;
+        block--) {
+      List<ChatMsgDto> chatMsgs = decode(block);
+      for (int i = chatMsgs.size() - 1; i >= 0 && result.size() < limit; i--) {
+        if (chatMsgs.get(i).getChatMsgId() < beforeId) {
+          result.add(chatMsgs.get(i));
+        }
+      }
+    }
+  }
+
+  boolean isEmpty() {
+    return blocks == 0;
+  }
+
+  long firstId() {
+    return firstIds[0];
+  }
+
+  long lastId() {
+    return lastIds[blocks - 1];
+  }
+
+  int sizeBytes() {
+    return validEnd;
+  }
+
+  private int firstBlockEndingAfter(long id) {
+    int low = 0;
+    int high = blocks;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (lastIds[mid] <= id) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private int lastBlockStartingBefore(long id) {
+    int low = 0;
+    int high = blocks;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (firstIds[mid] < id) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low - 1;
+  }
+
+  private void index(long firstId, long lastId, int offset) {
+    if (blocks == offsets.length) {
+      firstIds = Arrays.copyOf(firstIds, blocks * 2);
+      lastIds = Arrays.copyOf(lastIds, blocks * 2);
+      offsets = Arrays.copyOf(offsets, blocks * 2);
+    }
+    firstIds[blocks] = firstId;
+    lastIds[blocks] = lastId;
+    offsets[blocks] = offset;
+    blocks++;
+  }
+
+  // 마지막 매핑 이후 추가된 블록이 있으면 파일 전체를 한 번 다시 매핑
+  private MappedByteBuffer mapped() throws IOException {
+    if (mapped == null || mapped.capacity() < validEnd) {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        mapped = channel.map(MapMode.READ_ONLY, 0, validEnd);
+      }
+    }
+    return mapped;
+  }
+
+  private List<ChatMsgDto> decode(int block) throws IOException {
+    MappedByteBuffer mapped = mapped();
+    int offset = offsets[block];
+    int length = mapped.getInt(offset);
+    int count = mapped.getInt(offset + 4);
+    byte[] compressed = new byte[length];
+    ByteBuffer source = mapped.duplicate();
+    source.position(offset + HEADER_BYTES);
+    source.get(compressed);
+
+    List<ChatMsgDto> chatMsgs = new ArrayList<>(count);
+    try (DataInputStream in = new DataInputStream(
+        new InflaterInputStream(new ByteArrayInputStream(compressed)))) {
+      for (int i = 0; i < count; i++) {
+        long id = in.readLong();
+        long userId = in.readLong();
+        LocalDateTime sendTime = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(),
+            ZoneOffset.UTC);
+        String nickname = readString(in);
+        String message = readString(in);
+        chatMsgs.add(new ChatMsgDto(id, userId, nickname, message, sendTime));
+      }
+    }
+    return chatMsgs;
+  }
+
+  private static byte[] encode(List<ChatMsgDto> chatMsgs) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(chatMsgs.size() * 64);
+    try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+      for (ChatMsgDto chatMsg : chatMsgs) {
+        out.writeLong(chatMsg.getChatMsgId());
+        out.writeLong(chatMsg.getUserId() == null ? 0L : chatMsg.getUserId());
+        out.writeLong(chatMsg.getSendTime().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(chatMsg.getSendTime().getNano());
+        writeString(out, chatMsg.getNickname());
+        writeString(out, chatMsg.getMessage());
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  // 길이(-1 이면 null) + UTF-8
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
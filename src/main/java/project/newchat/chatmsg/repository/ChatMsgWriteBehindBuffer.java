@@ -0,0 +1,205 @@
+package project.newchat.chatmsg.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.newchat.common.metrics.ChatMetrics;
+
+/**
+ * 채팅 메시지 write-behind 저장소.
+ * 메시지는 bounded 버퍼에 적재만 하고 즉시 반환하며,
+ * 별도 스레드가 flush-size 개 또는 flush-interval 마다 multi-row INSERT 한 번으로 묶어서 배치 단위로 커밋한다.
+ * 건별 재시도까지 실패한 메시지는 이미 전송/브로드캐스트된 상태라 버리지 않고
+ * dead-letter 파일에 한 줄씩(JSON) 남긴다. 원인을 해결한 뒤 이 파일로 chat_msg 에 다시 넣는다.
+ */
+@Slf4j
+@Repository
+public class ChatMsgWriteBehindBuffer {
+
+  private static final String INSERT_PREFIX =
+      "insert into chat_msg (chat_msg_id, chat_room_id, user_id, message, send_time) values ";
+  private static final String INSERT_ROW = "(?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final ChatMetrics chatMetrics;
+
+  private final ObjectMapper objectMapper;
+
+  private final Path deadLetterFile;
+
+  private final BlockingQueue<PendingChatMsg> buffer;
+
+  private final int flushSize;
+
+  private final long flushIntervalMs;
+
+  private volatile boolean running = true;
+
+  private Thread writer;
+
+  public ChatMsgWriteBehindBuffer(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      ChatMetrics chatMetrics,
+      ObjectMapper objectMapper,
+      @Value("${chat.msg.write-behind.capacity:10000}") int capacity,
+      @Value("${chat.msg.write-behind.flush-size:100}") int flushSize,
+      @Value("${chat.msg.write-behind.flush-interval-ms:50}") long flushIntervalMs,
+      @Value("${chat.msg.write-behind.dead-letter-file:./chat-msg-dead-letter.jsonl}")
+          String deadLetterFile) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.chatMetrics = chatMetrics;
+    this.objectMapper = objectMapper;
+    this.deadLetterFile = Paths.get(deadLetterFile);
+    this.buffer = new ArrayBlockingQueue<>(capacity);
+    this.flushSize = flushSize;
+    this.flushIntervalMs = flushIntervalMs;
+    chatMetrics.gauge("chat.msg.persist.pending", "저장 대기 중인 채팅 메시지 수",
+        buffer, BlockingQueue::size);
+  }
+
+  @PostConstruct
+  public void start() {
+    writer = new Thread(this::runWriter, "chat-msg-write-behind");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  public void append(PendingChatMsg chatMsg) {
+    // 버퍼가 가득 찬 경우 메시지를 버리지 않고 호출 스레드에서 바로 저장 (back-pressure)
+    if (!buffer.offer(chatMsg)) {
+      log.warn("채팅 메시지 버퍼가 가득 차서 동기 저장합니다. chatMsgId={}", chatMsg.getId());
+      write(List.of(chatMsg));
+    }
+  }
+
+  public int pendingCount() {
+    return buffer.size();
+  }
+
+  private void runWriter() {
+    List<PendingChatMsg> batch = new ArrayList<>(flushSize);
+    while (running) {
+      try {
+        PendingChatMsg first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        buffer.drainTo(batch, flushSize - 1);
+        write(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        log.error("채팅 메시지 배치 저장 스레드 오류", e);
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  // 종료 시 남은 메시지를 모두 저장
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    // 진행 중인 배치는 끝까지 저장하도록 interrupt 없이 종료를 기다린다.
+    running = false;
+    if (writer != null) {
+      writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    List<PendingChatMsg> batch = new ArrayList<>(flushSize);
+    while (buffer.drainTo(batch, flushSize) > 0) {
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  private void write(List<PendingChatMsg> batch) {
+    long start = System.nanoTime();
+    try {
+      transactionTemplate.executeWithoutResult(status -> insert(batch));
+      chatMetrics.persist(start, batch.size(), true);
+    } catch (RuntimeException e) {
+      chatMetrics.persist(start, batch.size(), false);
+      if (batch.size() == 1) {
+        log.error("채팅 메시지 저장 실패, dead-letter 로 보냅니다. chatMsgId={}",
+            batch.get(0).getId(), e);
+        deadLetter(batch.get(0));
+        return;
+      }
+      // 한 건 때문에 배치 전체가 유실되지 않도록 건별로 다시 저장
+      log.warn("채팅 메시지 배치 저장 실패, 건별로 재시도합니다. size={}", batch.size(), e);
+      for (PendingChatMsg chatMsg : batch) {
+        write(List.of(chatMsg));
+      }
+    }
+  }
+
+  // 여러 스레드(저장 스레드, back-pressure 동기 저장, 종료)에서 호출되므로 동기화
+  private synchronized void deadLetter(PendingChatMsg chatMsg) {
+    chatMetrics.deadLetter();
+    try {
+      String line = objectMapper.writeValueAsString(chatMsg) + System.lineSeparator();
+      Files.write(deadLetterFile, line.getBytes(StandardCharsets.UTF_8),
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      // 파일에도 남기지 못하면 로그에라도 내용 전체를 남긴다.
+      log.error("dead-letter 기록 실패 chatMsgId={}, roomId={}, userId={}, sendTime={}, message={}",
+          chatMsg.getId(), chatMsg.getRoomId(), chatMsg.getUserId(), chatMsg.getSendTime(),
+          chatMsg.getMessage(), e);
+    }
+  }
+
+  private void insert(List<PendingChatMsg> batch) {
+    StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * 17);
+    sql.append(INSERT_PREFIX);
+    Object[] args = new Object[batch.size() * 5];
+    int i = 0;
+    for (PendingChatMsg chatMsg : batch) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(INSERT_ROW);
+      args[i++] = chatMsg.getId();
+      args[i++] = chatMsg.getRoomId();
+      args[i++] = chatMsg.getUserId();
+      args[i++] = chatMsg.getMessage();
+      args[i++] = Timestamp.valueOf(chatMsg.getSendTime());
+    }
+    jdbcTemplate.update(sql.toString(), args);
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class PendingChatMsg {
+    private final Long id;
+    private final Long roomId;
+    private final Long userId;
+    private final String message;
+    private final LocalDateTime sendTime;
+  }
+}
@@ -0,0 +1,177 @@
+package project.newchat.chatmsg.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import project.newchat.chatmsg.dto.ChatMsgDto;
+import project.newchat.chatmsg.repository.ChatMsgArchive;
+import project.newchat.common.metrics.ChatMetrics;
+import project.newchat.common.routing.RoomRouter;
+
+/**
+ * after-days 가 지난 메시지를 chat_msg 에서 ChatMsgArchive 로 옮긴다.
+ * 방마다 watermark 이후 메시지를 chunk-size 건씩 읽어 아카이브에 기록(fsync)한 뒤 chat_msg 에서 삭제한다.
+ * 기록 후 삭제 전에 중단되면 다음 실행 때 watermark 이하 행을 먼저 지운다.
+ * 아카이브는 이 서버의 로컬 디스크에 있으므로 단일 서버에서만 사용할 수 있다.
+ * 여러 서버(chat.routing.nodes 2개 이상)에서 돌리면 공유 chat_msg 에서 지운 메시지가 실행한 서버에만 남아
+ * 다른 서버의 이력/검색에서 사라지므로, 이 경우 아카이브를 켜 두면 기동하지 않는다.
+ */
+@Slf4j
+@Component
+public class ChatMsgArchiver {
+
+  private static final String SELECT_ROOMS =
+      "select chat_room_id from chat_room where chat_room_id > ? and deleted = false "
+          + "order by chat_room_id limit ?";
+  // 닉네임은 아카이브 시점 값으로 보관
+  private static final String SELECT_CHUNK =
+      "select c.chat_msg_id, c.user_id, u.nickname, c.message, c.send_time from chat_msg c "
+          + "left join user u on u.user_id = c.user_id "
+          + "where c.chat_room_id = ? and c.chat_msg_id > ? order by c.chat_msg_id limit ?";
+  private static final String DELETE_ARCHIVED =
+      "delete from chat_msg where chat_room_id = ? and chat_msg_id > ? and chat_msg_id <= ?";
+  private static final int ROOM_PAGE_SIZE = 100;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final ChatMsgArchive chatMsgArchive;
+
+  private final ChatMetrics chatMetrics;
+
+  private final RoomRouter roomRouter;
+
+  private final boolean enabled;
+
+  private final long afterDays;
+
+  private final int chunkSize;
+
+  private final long intervalMs;
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "chat-msg-archiver");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public ChatMsgArchiver(
+      JdbcTemplate jdbcTemplate,
+      ChatMsgArchive chatMsgArchive,
+      ChatMetrics chatMetrics,
+      RoomRouter roomRouter,
+      @Value("${chat.msg.archive.enabled:true}") boolean enabled,
+      @Value("${chat.msg.archive.after-days:30}") long afterDays,
+      @Value("${chat.msg.archive.chunk-size:1000}") int chunkSize,
+      @Value("${chat.msg.archive.interval-ms:3600000}") long intervalMs) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.chatMsgArchive = chatMsgArchive;
+    this.chatMetrics = chatMetrics;
+    this.roomRouter = roomRouter;
+    this.enabled = enabled;
+    if (enabled && isMultiNode()) {
+      throw new IllegalStateException("메시지 아카이브는 단일 서버에서만 사용할 수 있습니다. "
+          + "chat.routing.nodes 가 여러 개면 chat.msg.archive.enabled=false 로 설정하세요.");
+    }
+    this.afterDays = afterDays;
+    this.chunkSize = chunkSize;
+    this.intervalMs = intervalMs;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (enabled) {
+      scheduler.scheduleWithFixedDelay(this::run, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  private void run() {
+    try {
+      archive(LocalDateTime.now().minusDays(afterDays));
+    } catch (RuntimeException e) {
+      log.error("채팅 메시지 아카이브 오류", e);
+    }
+  }
+
+  /**
+   * cutoff 이전에 전송된 메시지를 모든 방에서 아카이브로 옮기고 옮긴 건수를 반환
+   */
+  public long archive(LocalDateTime cutoff) {
+    if (isMultiNode()) {
+      // 실행 중에 서버가 추가된 경우
+      log.error("여러 서버로 라우팅 중이라 메시지 아카이브를 건너뜁니다. nodes={}", roomRouter.nodes());
+      return 0;
+    }
+    long moved = 0;
+    long cursor = 0L;
+    while (!Thread.currentThread().isInterrupted()) {
+      List<Long> roomIds = jdbcTemplate.queryForList(SELECT_ROOMS, Long.class, cursor,
+          ROOM_PAGE_SIZE);
+      for (Long roomId : roomIds) {
+        moved += archiveRoom(roomId, cutoff);
+      }
+      if (roomIds.size() < ROOM_PAGE_SIZE) {
+        break;
+      }
+      cursor = roomIds.get(roomIds.size() - 1);
+    }
+    if (moved > 0) {
+      log.info("채팅 메시지 아카이브 완료 moved={}, cutoff={}", moved, cutoff);
+    }
+    return moved;
+  }
+
+  private boolean isMultiNode() {
+    return roomRouter.nodes().size() > 1;
+  }
+
+  private long archiveRoom(Long roomId, LocalDateTime cutoff) {
+    long watermark = chatMsgArchive.watermark(roomId);
+    if (watermark > 0) {
+      // 이전 실행에서 아카이브만 하고 삭제하지 못한 행
+      jdbcTemplate.update(DELETE_ARCHIVED, roomId, 0L, watermark);
+    }
+    long moved = 0;
+    while (true) {
+      List<ChatMsgDto> rows = jdbcTemplate.query(SELECT_CHUNK, (rs, rowNum) -> new ChatMsgDto(
+          rs.getLong("chat_msg_id"),
+          rs.getLong("user_id"),
+          rs.getString("nickname"),
+          rs.getString("message"),
+          rs.getTimestamp("send_time").toLocalDateTime()), roomId, watermark, chunkSize);
+      // ID 순 = 전송 순이므로 cutoff 이후 메시지가 나오면 그 방은 끝
+      List<ChatMsgDto> expired = new ArrayList<>(rows.size());
+      for (ChatMsgDto row : rows) {
+        if (!row.getSendTime().isBefore(cutoff)) {
+          break;
+        }
+        expired.add(row);
+      }
+      if (expired.isEmpty()) {
+        return moved;
+      }
+      long last = expired.get(expired.size() - 1).getChatMsgId();
+      chatMsgArchive.append(roomId, expired);
+      jdbcTemplate.update(DELETE_ARCHIVED, roomId, watermark, last);
+      chatMetrics.archived(expired.size());
+      moved += expired.size();
+      watermark = last;
+      if (expired.size() < rows.size() || rows.size() < chunkSize) {
+        return moved;
+      }
+    }
+  }
+}
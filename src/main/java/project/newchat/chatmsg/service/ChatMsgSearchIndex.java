@@ -0,0 +1,486 @@
+package project.newchat.chatmsg.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import project.newchat.chatmsg.dto.ChatMsgDto;
+import project.newchat.chatmsg.repository.ChatMsgArchive;
+import project.newchat.common.broadcast.PubSubBroker;
+import project.newchat.common.metrics.ChatMetrics;
+
+/**
+ * 채팅방별 메시지 역색인 (토큰 -> 메시지 ID 오름차순 배열).
+ * 전송 시 바로 추가하고, 검색할 때 아직 색인되지 않은 방은 chat_msg 와 아카이브에서 최근 메시지를 읽어 채운다(load).
+ * 메시지는 방 삭제 외에는 지워지지 않으므로 load 는 빠진 ID 만 채우는 방식이고, 중복 추가는 무시한다.
+ * 방마다 최근 max-messages-per-room 개 메시지만 색인하고, 넘치면 오래된 메시지부터 색인에서 뺀다. (그 이전 메시지는 검색되지 않음)
+ * 메모리는 posting 하나에 ID 8바이트(+ 배열 여유분)로, 한글은 글자마다 1-gram/2-gram 이 생겨 40자 메시지가 약 80개 posting,
+ * 즉 메시지당 약 1KB 다. 전체 posting 이 max-postings 를 넘으면 오래 검색/전송이 없는 방부터 LRU 로 색인을 버리고,
+ * 버린 방은 다음 검색 때 다시 load 한다.
+ * 텍스트는 보관하지 않는다. 찾은 ID 의 메시지는 이력 조회와 같은 저장소에서 읽는다.
+ * PubSubBroker 로 여러 서버가 동작하면 다른 서버에서 보낸 메시지는 전송 시 추가되지 않으므로,
+ * 저장된 chat_msg 를 tail-interval-ms 마다 이어 읽어서(tail) 이미 색인된 방에 추가한다.
+ * 다른 서버 메시지는 저장 후 tail 주기만큼 늦게 검색된다.
+ */
+@Slf4j
+@Component
+public class ChatMsgSearchIndex {
+
+  private static final String COUNT_ACTIVE_ROOM =
+      "select count(*) from chat_room where chat_room_id = ? and deleted = false";
+  private static final String SELECT_CHUNK =
+      "select chat_msg_id, message from chat_msg where chat_room_id = ? and chat_msg_id > ? "
+          + "order by chat_msg_id limit ?";
+  private static final String SELECT_TAIL =
+      "select m.chat_room_id, m.chat_msg_id, m.message, m.send_time from chat_msg m "
+          + "join chat_room r on r.chat_room_id = m.chat_room_id "
+          + "where m.chat_msg_id > ? and r.deleted = false order by m.chat_msg_id limit ?";
+  // 방의 최근 N 번째 메시지 ID (load 시작 위치)
+  private static final String SELECT_WINDOW_START =
+      "select chat_msg_id from chat_msg where chat_room_id = ? "
+          + "order by chat_msg_id desc limit 1 offset ?";
+  private static final String SELECT_TAIL_START =
+      "select chat_msg_id from chat_msg where send_time < ? order by chat_msg_id desc limit 1";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final ChatMsgArchive chatMsgArchive;
+
+  private final int loadChunkSize;
+
+  private final int maxMessagesPerRoom;
+
+  private final long maxPostings;
+
+  private final boolean tailEnabled;
+
+  private final long tailIntervalMs;
+
+  private final long tailLagMs;
+
+  // 이 ID 까지는 tail 로 읽었고 이후에 늦게 저장될 메시지도 없다 (-1 = 아직 시작 전)
+  private long tailCursor = -1L;
+
+  private final Map<Long, RoomIndex> rooms;
+
+  // 전체 posting(토큰, 메시지) 수
+  private final AtomicLong postings = new AtomicLong();
+
+  private final ScheduledExecutorService tailer = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "chat-msg-search-tail");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  @Autowired
+  public ChatMsgSearchIndex(
+      JdbcTemplate jdbcTemplate,
+      ChatMsgArchive chatMsgArchive,
+      ChatMetrics chatMetrics,
+      ObjectProvider<PubSubBroker> broker,
+      @Value("${chat.msg.search.load-chunk-size:1000}") int loadChunkSize,
+      @Value("${chat.msg.search.max-messages-per-room:10000}") int maxMessagesPerRoom,
+      @Value("${chat.msg.search.max-postings:20000000}") long maxPostings,
+      @Value("${chat.msg.search.tail-interval-ms:1000}") long tailIntervalMs,
+      @Value("${chat.msg.search.tail-lag-ms:5000}") long tailLagMs) {
+    this(jdbcTemplate, chatMsgArchive, chatMetrics, loadChunkSize, maxMessagesPerRoom,
+        maxPostings, broker.getIfAvailable() != null, tailIntervalMs, tailLagMs);
+  }
+
+  ChatMsgSearchIndex(JdbcTemplate jdbcTemplate, ChatMsgArchive chatMsgArchive,
+      ChatMetrics chatMetrics, int loadChunkSize, int maxMessagesPerRoom, long maxPostings,
+      boolean tailEnabled, long tailIntervalMs, long tailLagMs) {
+    if (maxMessagesPerRoom < 1) {
+      throw new IllegalArgumentException(
+          "chat.msg.search.max-messages-per-room 은 1 이상이어야 합니다: " + maxMessagesPerRoom);
+    }
+    this.jdbcTemplate = jdbcTemplate;
+    this.chatMsgArchive = chatMsgArchive;
+    this.loadChunkSize = loadChunkSize;
+    this.maxMessagesPerRoom = maxMessagesPerRoom;
+    this.maxPostings = maxPostings;
+    this.tailEnabled = tailEnabled;
+    this.tailIntervalMs = tailIntervalMs;
+    this.tailLagMs = tailLagMs;
+    // accessOrder = true -> 가장 오래 사용되지 않은 방부터 제거
+    this.rooms = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true));
+    chatMetrics.gauge("chat.msg.search.postings", "검색 인덱스의 (토큰, 메시지) 항목 수",
+        postings, AtomicLong::get);
+    chatMetrics.gauge("chat.msg.search.rooms", "검색 인덱스에 올라온 방 수",
+        rooms, Map::size);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void startTail() {
+    if (tailEnabled) {
+      startTailCursor();
+      tailer.scheduleWithFixedDelay(this::runTail, tailIntervalMs, tailIntervalMs,
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    tailer.shutdownNow();
+  }
+
+  // 메시지 추가 (이미 있는 ID 는 무시). 아직 load 전인 방은 검색할 때 나머지를 채운다.
+  public void add(Long roomId, long chatMsgId, String message) {
+    RoomIndex room = rooms.computeIfAbsent(roomId, id -> new RoomIndex(maxMessagesPerRoom));
+    room.add(chatMsgId, message, postings);
+    evictIdleRooms(room);
+  }
+
+  // 방 삭제
+  public void removeRoom(Long roomId) {
+    RoomIndex removed = rooms.remove(roomId);
+    if (removed != null) {
+      removed.discard(postings);
+    }
+  }
+
+  /**
+   * tokens 를 모두 포함하는 메시지 ID 를 beforeId(없으면 가장 최신) 이전부터 최신순으로 최대 limit 개.
+   * 색인되지 않은 방은 호출 스레드에서 최근 max-messages-per-room 개를 먼저 읽는다.
+   */
+  public long[] search(Long roomId, Collection<String> tokens, Long beforeId, int limit) {
+    if (tokens.isEmpty()) {
+      return new long[0];
+    }
+    RoomIndex room = rooms.computeIfAbsent(roomId, id -> new RoomIndex(maxMessagesPerRoom));
+    if (!room.loaded) {
+      load(roomId, room);
+    }
+    return room.search(tokens, beforeId == null ? Long.MAX_VALUE : beforeId, limit);
+  }
+
+  public boolean isIndexed(Long roomId) {
+    return rooms.containsKey(roomId);
+  }
+
+  /**
+   * 마지막 tail 이후 저장된 메시지를 chat_msg 에서 읽어 추가하고 읽은 행 수를 반환 (호출 스레드에서 실행).
+   * 서버마다 write-behind 저장 시점이 달라 작은 ID 가 나중에 저장될 수 있으므로
+   * tail-lag-ms 보다 최근에 보낸 메시지 구간은 다음 tail 에서 다시 읽는다. (중복 추가는 무시)
+   * 기동 시 tail-lag-ms 이전 메시지 다음부터 읽는다. 색인에 없는 방은 건너뛴다. (검색할 때 load 에서 읽음)
+   */
+  public synchronized int tail() {
+    if (tailCursor < 0) {
+      startTailCursor();
+    }
+    LocalDateTime cutoff = cutoff();
+    long cursor = tailCursor;
+    boolean settled = true;
+    int read = 0;
+    while (!Thread.currentThread().isInterrupted()) {
+      List<TailRow> rows = jdbcTemplate.query(SELECT_TAIL, (rs, rowNum) -> new TailRow(
+          rs.getLong("chat_room_id"), rs.getLong("chat_msg_id"), rs.getString("message"),
+          rs.getTimestamp("send_time").toLocalDateTime()), cursor, loadChunkSize);
+      for (TailRow row : rows) {
+        RoomIndex room = rooms.get(row.roomId);
+        if (room != null) {
+          room.add(row.chatMsgId, row.message, postings);
+          evictIdleRooms(room);
+        }
+        // cutoff 이전 메시지가 이어지는 구간까지만 cursor 를 올린다.
+        settled = settled && row.sendTime.isBefore(cutoff);
+        if (settled) {
+          tailCursor = row.chatMsgId;
+        }
+      }
+      read += rows.size();
+      if (rows.size() < loadChunkSize) {
+        break;
+      }
+      cursor = rows.get(rows.size() - 1).chatMsgId;
+    }
+    return read;
+  }
+
+  private synchronized void startTailCursor() {
+    List<Long> start = jdbcTemplate.queryForList(SELECT_TAIL_START, Long.class, cutoff());
+    tailCursor = start.isEmpty() ? 0L : start.get(0);
+  }
+
+  private LocalDateTime cutoff() {
+    return LocalDateTime.now().minusNanos(tailLagMs * 1_000_000L);
+  }
+
+  private void runTail() {
+    try {
+      tail();
+    } catch (RuntimeException e) {
+      log.error("채팅 메시지 검색 인덱스 tail 오류", e);
+    }
+  }
+
+  // 방 하나를 한 번만 load (색인 락은 잡지 않으므로 load 중에도 전송된 메시지는 바로 추가된다)
+  private void load(Long roomId, RoomIndex room) {
+    synchronized (room.loadLock) {
+      if (room.loaded) {
+        return;
+      }
+      long start = System.currentTimeMillis();
+      long indexed = fill(roomId, room);
+      room.loaded = true;
+      evictIdleRooms(room);
+      log.debug("채팅 메시지 검색 인덱스 load roomId={}, chatMsgs={}, elapsedMs={}", roomId,
+          indexed, System.currentTimeMillis() - start);
+    }
+  }
+
+  private long fill(Long roomId, RoomIndex room) {
+    // 삭제된 방은 purge 전까지 메시지가 남아 있어도 색인하지 않는다.
+    Integer active = jdbcTemplate.queryForObject(COUNT_ACTIVE_ROOM, Integer.class, roomId);
+    if (active == null || active == 0) {
+      return 0;
+    }
+    long indexed = 0;
+    long watermark = chatMsgArchive.watermark(roomId);
+    long lastId = 0L;
+    // chat_msg 에 색인할 만큼 메시지가 있으면 그 구간만 읽고 아카이브는 건너뛴다.
+    List<Long> windowStart = jdbcTemplate.queryForList(SELECT_WINDOW_START, Long.class, roomId,
+        maxMessagesPerRoom - 1);
+    if (!windowStart.isEmpty()) {
+      lastId = windowStart.get(0) - 1;
+      watermark = lastId;
+    }
+    while (lastId < watermark) {
+      List<ChatMsgDto> archived = chatMsgArchive.findAfter(roomId, lastId, loadChunkSize);
+      if (archived.isEmpty()) {
+        break;
+      }
+      indexed += addAll(room, archived);
+      lastId = archived.get(archived.size() - 1).getChatMsgId();
+    }
+    lastId = Math.max(lastId, watermark);
+    while (!Thread.currentThread().isInterrupted()) {
+      List<ChatMsgDto> rows = jdbcTemplate.query(SELECT_CHUNK, (rs, rowNum) -> new ChatMsgDto(
+          rs.getLong("chat_msg_id"), null, null, rs.getString("message"), null),
+          roomId, lastId, loadChunkSize);
+      indexed += addAll(room, rows);
+      if (rows.size() < loadChunkSize) {
+        break;
+      }
+      lastId = rows.get(rows.size() - 1).getChatMsgId();
+    }
+    return indexed;
+  }
+
+  private int addAll(RoomIndex room, List<ChatMsgDto> chatMsgs) {
+    for (ChatMsgDto chatMsg : chatMsgs) {
+      room.add(chatMsg.getChatMsgId(), chatMsg.getMessage(), postings);
+    }
+    return chatMsgs.size();
+  }
+
+  // 전체 posting 이 max-postings 를 넘으면 방금 쓴 방(keep)을 빼고 가장 오래 사용되지 않은 방부터 버린다.
+  private void evictIdleRooms(RoomIndex keep) {
+    if (postings.get() <= maxPostings) {
+      return;
+    }
+    synchronized (rooms) {
+      Iterator<RoomIndex> eldest = rooms.values().iterator();
+      while (postings.get() > maxPostings && eldest.hasNext()) {
+        RoomIndex room = eldest.next();
+        if (room != keep) {
+          eldest.remove();
+          room.discard(postings);
+        }
+      }
+    }
+  }
+
+  private static class TailRow {
+
+    private final Long roomId;
+
+    private final long chatMsgId;
+
+    private final String message;
+
+    private final LocalDateTime sendTime;
+
+    TailRow(Long roomId, long chatMsgId, String message, LocalDateTime sendTime) {
+      this.roomId = roomId;
+      this.chatMsgId = chatMsgId;
+      this.message = message;
+      this.sendTime = sendTime;
+    }
+  }
+
+  /**
+   * 방 하나의 색인. 메서드 단위로 동기화한다.
+   */
+  private static class RoomIndex {
+
+    private final Object loadLock = new Object();
+
+    // chat_msg/아카이브의 최근 메시지를 읽었는지
+    private volatile boolean loaded;
+
+    // 색인에서 버려졌으면 더 추가하지 않는다. (load 중에 버려진 경우)
+    private boolean discarded;
+
+    private final Map<String, Postings> terms = new HashMap<>();
+
+    // 색인된 메시지 ID
+    private final Postings messages = new Postings();
+
+    private final int maxMessages;
+
+    // 이 ID 이하는 색인에서 뺐으므로 다시 추가하지 않는다.
+    private long floorId;
+
+    private long postings;
+
+    RoomIndex(int maxMessages) {
+      this.maxMessages = maxMessages;
+    }
+
+    synchronized void add(long chatMsgId, String message, AtomicLong total) {
+      if (discarded || chatMsgId <= floorId || !messages.add(chatMsgId)) {
+        return;
+      }
+      int added = 0;
+      for (String token : ChatMsgTokenizer.tokens(message)) {
+        if (terms.computeIfAbsent(token, t -> new Postings()).add(chatMsgId)) {
+          added++;
+        }
+      }
+      postings += added;
+      total.addAndGet(added);
+      if (messages.size > maxMessages) {
+        trim(total);
+      }
+    }
+
+    // 매번 빼지 않도록 최대치의 90% 까지 오래된 메시지를 한 번에 뺀다.
+    private void trim(AtomicLong total) {
+      floorId = messages.ids[messages.size - Math.max(1, maxMessages * 9 / 10) - 1];
+      messages.removeUpTo(floorId);
+      long removed = 0;
+      Iterator<Postings> lists = terms.values().iterator();
+      while (lists.hasNext()) {
+        Postings list = lists.next();
+        removed += list.removeUpTo(floorId);
+        if (list.size == 0) {
+          lists.remove();
+        }
+      }
+      postings -= removed;
+      total.addAndGet(-removed);
+    }
+
+    synchronized void discard(AtomicLong total) {
+      discarded = true;
+      total.addAndGet(-postings);
+      postings = 0;
+      terms.clear();
+    }
+
+    synchronized long[] search(Collection<String> tokens, long beforeId, int limit) {
+      List<Postings> lists = new ArrayList<>(tokens.size());
+      Postings shortest = null;
+      for (String token : tokens) {
+        Postings list = terms.get(token);
+        if (list == null) {
+          return new long[0];
+        }
+        lists.add(list);
+        if (shortest == null || list.size < shortest.size) {
+          shortest = list;
+        }
+      }
+      // 가장 짧은 목록을 최신순으로 훑으면서 나머지 목록에 모두 있는 ID 만 남긴다.
+      long[] result = new long[limit];
+      int found = 0;
+      for (int i = shortest.indexBefore(beforeId); i >= 0 && found < limit; i--) {
+        long id = shortest.ids[i];
+        boolean all = true;
+        for (Postings list : lists) {
+          if (list != shortest && !list.contains(id)) {
+            all = false;
+            break;
+          }
+        }
+        if (all) {
+          result[found++] = id;
+        }
+      }
+      return Arrays.copyOf(result, found);
+    }
+  }
+
+  /**
+   * 메시지 ID 오름차순 배열. ID 는 시간순 발급이라 대부분 맨 뒤에 붙는다.
+   */
+  private static class Postings {
+
+    private long[] ids = new long[4];
+
+    private int size;
+
+    boolean add(long id) {
+      if (size > 0 && ids[size - 1] >= id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+          return false;
+        }
+        insert(-index - 1, id);
+        return true;
+      }
+      insert(size, id);
+      return true;
+    }
+
+    boolean contains(long id) {
+      return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    // id 이하를 모두 빼고 뺀 개수를 반환
+    int removeUpTo(long id) {
+      int removed = indexBefore(id + 1) + 1;
+      if (removed > 0) {
+        // 남은 크기에 맞춰 배열도 줄인다. (최소 4칸)
+        ids = Arrays.copyOfRange(ids, removed, Math.max(removed + 4, ids.length));
+        size -= removed;
+      }
+      return removed;
+    }
+
+    // id 보다 작은 마지막 위치 (없으면 -1)
+    int indexBefore(long id) {
+      int index = Arrays.binarySearch(ids, 0, size, id);
+      return (index >= 0 ? index : -index - 1) - 1;
+    }
+
+    private void insert(int index, long id) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size + (size >> 1));
+      }
+      System.arraycopy(ids, index, ids, index + 1, size - index);
+      ids[index] = id;
+      size++;
+    }
+  }
+}
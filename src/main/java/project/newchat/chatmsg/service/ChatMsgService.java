@@ -4,10 +4,19 @@ import java.util.List;
 import project.newchat.chatmsg.domain.request.ChatMsgRequest;
 import project.newchat.chatmsg.domain.response.ChatMsgResponse;
 import project.newchat.chatmsg.dto.ChatMsgDto;
+import project.newchat.chatmsg.dto.ChatMsgSearchDto;
 
 public interface ChatMsgService {
 
   ChatMsgResponse sendMessage(ChatMsgRequest message, Long userId, Long roomId);
 
-  List<ChatMsgDto> getRoomChatMsgList(Long roomId, Long userId, Long lastId);
+  List<ChatMsgDto> getRoomChatMsgList(Long roomId, Long userId, Long lastId, Long beforeId,
+      Integer size);
+
+  // 방 안의 메시지 검색 (최신순, beforeId 이전)
+  List<ChatMsgSearchDto> searchRoomChatMsg(Long roomId, Long userId, String query, Long beforeId,
+      Integer size);
+
+  // 참여 중인 모든 방의 메시지 검색 (최신순, beforeId 이전)
+  List<ChatMsgSearchDto> searchMyChatMsg(Long userId, String query, Long beforeId, Integer size);
 }
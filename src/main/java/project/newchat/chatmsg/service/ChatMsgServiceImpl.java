@@ -1,68 +1,239 @@
 package project.newchat.chatmsg.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import project.newchat.chatmsg.domain.ChatMsg;
 import project.newchat.chatmsg.domain.request.ChatMsgRequest;
 import project.newchat.chatmsg.domain.response.ChatMsgResponse;
+import project.newchat.chatmsg.dto.ChatEnvelope;
 import project.newchat.chatmsg.dto.ChatMsgDto;
+import project.newchat.chatmsg.dto.ChatMsgSearchDto;
 import project.newchat.chatmsg.repository.ChatMsgCustomRepository;
-import project.newchat.chatmsg.repository.ChatMsgRepository;
+import project.newchat.chatmsg.repository.ChatMsgWriteBehindBuffer;
+import project.newchat.chatmsg.repository.ChatMsgWriteBehindBuffer.PendingChatMsg;
 import project.newchat.chatroom.domain.ChatRoom;
 import project.newchat.chatroom.repository.ChatRoomRepository;
+import project.newchat.chatroom.service.RoomMembershipIndex;
+import project.newchat.common.broadcast.ChatBroadcastBus;
 import project.newchat.common.exception.CustomException;
+import project.newchat.common.id.IdGenerator;
+import project.newchat.common.metrics.ChatMetrics;
 import project.newchat.common.type.ErrorCode;
-import project.newchat.user.domain.User;
-import project.newchat.user.repository.UserRepository;
+import project.newchat.user.dto.UserSummary;
+import project.newchat.user.service.UserSummaryCache;
+import project.newchat.userchatroom.repository.UserChatRoomRepository;
 
 @Service
 @RequiredArgsConstructor
 public class ChatMsgServiceImpl implements ChatMsgService {
 
-  private final ChatMsgRepository chatMsgRepository;
-  private final UserRepository userRepository;
+  private final UserSummaryCache userSummaryCache;
   private final ChatRoomRepository chatRoomRepository;
   private final ChatMsgCustomRepository chatMsgCustomRepository;
+  private final ChatMsgWriteBehindBuffer chatMsgWriteBehindBuffer;
+  private final IdGenerator idGenerator;
+  private final RecentChatMsgBuffer recentChatMsgBuffer;
+  private final RoomMembershipIndex roomMembershipIndex;
+  private final ChatBroadcastBus chatBroadcastBus;
+  private final ChatMetrics chatMetrics;
+  private final ChatMsgSearchIndex chatMsgSearchIndex;
+  private final UserChatRoomRepository userChatRoomRepository;
+
+  private static final int DEFAULT_PAGE_SIZE = 10;
+  private static final int MAX_PAGE_SIZE = 100;
 
   @Override
   public ChatMsgResponse sendMessage(ChatMsgRequest message, Long userId, Long roomId) {
-    User findUser = userRepository.findById(userId)
-        .orElseThrow(() -> new CustomException(ErrorCode.NOT_FOUND_USER));
+    long start = System.nanoTime();
+    UserSummary findUser = userSummaryCache.get(userId);
 
     ChatRoom chatRoom = chatRoomRepository.findChatRoomById(roomId)
         .orElseThrow(() -> new CustomException(ErrorCode.NOT_FOUND_ROOM));
-    // 채팅 메시지 생성
-    ChatMsg chatMsg = ChatMsg.builder()
-        .message(message.getMessage())
-        .sendTime(LocalDateTime.now())
-        .user(findUser)
-        .chatRoom(chatRoom)
-        .build();
+    checkMember(roomId, userId);
+    // 채팅 메시지 생성 (ID, 전송 시각은 저장 전에 확정)
+    PendingChatMsg chatMsg = new PendingChatMsg(
+        idGenerator.nextId(),
+        chatRoom.getId(),
+        findUser.getId(),
+        message.getMessage(),
+        LocalDateTime.now());
     // Response
     ChatMsgResponse response = ChatMsgResponse.builder()
+        .chatMsgId(chatMsg.getId())
         .roomId(roomId)
         .from(findUser.getNickname())
         .message(message.getMessage())
         .sendTime(chatMsg.getSendTime())
         .build();
-    chatMsgRepository.save(chatMsg);
+    // 저장은 write-behind 버퍼에서 배치로 처리
+    chatMsgWriteBehindBuffer.append(chatMsg);
+    recentChatMsgBuffer.append(roomId, new ChatMsgDto(
+        chatMsg.getId(),
+        chatMsg.getUserId(),
+        findUser.getNickname(),
+        chatMsg.getMessage(),
+        chatMsg.getSendTime()));
+    chatMsgSearchIndex.add(roomId, chatMsg.getId(), chatMsg.getMessage());
+    // 방에 접속한 모든 서버의 세션에 전달
+    chatBroadcastBus.publish(ChatEnvelope.builder()
+        .messageId(chatMsg.getId())
+        .roomId(roomId)
+        .senderId(findUser.getId())
+        .from(findUser.getNickname())
+        .message(chatMsg.getMessage())
+        .sendTime(chatMsg.getSendTime())
+        .build());
+    chatMetrics.msgSend(start);
     return response;
   }
 
+  /**
+   * lastId 가 있으면 lastId 이후 메시지를 오래된 순으로,
+   * 없으면 beforeId(없으면 가장 최신) 이전 메시지를 최신순으로 조회
+   */
   @Override
-  public List<ChatMsgDto> getRoomChatMsgList(Long roomId, Long userId, Long lastId) {
-    userRepository.findById(userId)
-        .orElseThrow(() -> new CustomException(ErrorCode.NOT_FOUND_USER));
+  public List<ChatMsgDto> getRoomChatMsgList(Long roomId, Long userId, Long lastId,
+      Long beforeId, Integer size) {
+    userSummaryCache.get(userId);
+    checkMember(roomId, userId);
 
-    List<ChatMsg> chatMsgsList = chatMsgCustomRepository.findChatRoomIdByChatMsg(roomId, lastId);
-    return chatMsgsList.stream().map(chatMsg -> new ChatMsgDto(
-        chatMsg.getId(),
-        chatMsg.getUser().getId(),
-        chatMsg.getUser().getNickname(),
-        chatMsg.getMessage(),
-        chatMsg.getSendTime())).collect(Collectors.toList());
+    int limit = pageSize(size);
+    // 최근 메시지 구간이면 DB 조회 없이 버퍼에서 응답
+    Supplier<List<ChatMsgDto>> loader = recentLoader(roomId);
+
+    long start = System.nanoTime();
+    List<ChatMsgDto> recent = lastId != null
+        ? recentChatMsgBuffer.findAfter(roomId, lastId, limit, loader)
+        : recentChatMsgBuffer.findBefore(roomId, beforeId, limit, loader);
+    if (recent != null) {
+      chatMetrics.history(ChatMetrics.SOURCE_BUFFER, start, recent.size());
+      return recent;
+    }
+    List<ChatMsgDto> chatMsgs = lastId != null
+        ? chatMsgCustomRepository.findChatRoomIdByChatMsg(roomId, lastId, limit)
+        : chatMsgCustomRepository.findChatRoomIdByChatMsgBefore(roomId, beforeId, limit);
+    chatMetrics.history(ChatMetrics.SOURCE_DB, start, chatMsgs.size());
+    return chatMsgs;
+  }
+
+  @Override
+  public List<ChatMsgSearchDto> searchRoomChatMsg(Long roomId, Long userId, String query,
+      Long beforeId, Integer size) {
+    userSummaryCache.get(userId);
+    checkMember(roomId, userId);
+    return search(List.of(roomId), query, beforeId, size);
+  }
+
+  @Override
+  public List<ChatMsgSearchDto> searchMyChatMsg(Long userId, String query, Long beforeId,
+      Integer size) {
+    userSummaryCache.get(userId);
+    return search(userChatRoomRepository.findChatRoomIdByUserId(userId), query, beforeId, size);
+  }
+
+  /**
+   * 방마다 인덱스에서 후보 ID 를 최신순으로 limit 개씩 찾고, 전체에서 최신 limit 개의 메시지를 읽는다.
+   * 3글자 이상 한글 구간은 2-gram 이 떨어져서 맞았을 수 있으므로 본문에 그대로 있는지 확인하고,
+   * 확인에서 빠진 만큼 다음 후보를 더 찾는다.
+   */
+  private List<ChatMsgSearchDto> search(List<Long> roomIds, String query, Long beforeId,
+      Integer size) {
+    Set<String> tokens = ChatMsgTokenizer.tokens(query);
+    if (tokens.isEmpty()) {
+      throw new CustomException(ErrorCode.INVALID_SEARCH_QUERY);
+    }
+    List<String> phrases = ChatMsgTokenizer.cjkPhrases(query);
+    int limit = pageSize(size);
+
+    long start = System.nanoTime();
+    List<ChatMsgSearchDto> result = new ArrayList<>(limit);
+    Long cursor = beforeId;
+    while (result.size() < limit) {
+      // 메시지 ID -> 방 ID (ID 는 전체에서 시간순이므로 방이 달라도 ID 로 정렬)
+      TreeMap<Long, Long> candidates = new TreeMap<>(Comparator.reverseOrder());
+      for (Long roomId : roomIds) {
+        for (long id : chatMsgSearchIndex.search(roomId, tokens, cursor, limit)) {
+          candidates.put(id, roomId);
+        }
+      }
+      while (candidates.size() > limit) {
+        candidates.pollLastEntry();
+      }
+      Map<Long, ChatMsgSearchDto> found = load(candidates);
+      for (Long id : candidates.keySet()) {
+        ChatMsgSearchDto chatMsg = found.get(id);
+        if (chatMsg != null && containsAll(chatMsg.getMessage(), phrases)
+            && result.size() < limit) {
+          result.add(chatMsg);
+        }
+      }
+      if (candidates.size() < limit) {
+        break;
+      }
+      cursor = candidates.lastKey();
+    }
+    chatMetrics.search(start, result.size());
+    return result;
+  }
+
+  // 후보 메시지 읽기 (아직 저장 전인 메시지는 최근 메시지 버퍼에서)
+  // 버퍼를 쓰지 않는 다중 서버 구성에서는 저장 후에 보인다.
+  private Map<Long, ChatMsgSearchDto> load(TreeMap<Long, Long> candidates) {
+    Map<Long, List<Long>> idsByRoom = new HashMap<>();
+    for (Entry<Long, Long> candidate : candidates.entrySet()) {
+      idsByRoom.computeIfAbsent(candidate.getValue(), roomId -> new ArrayList<>())
+          .add(candidate.getKey());
+    }
+    Map<Long, ChatMsgSearchDto> found = new HashMap<>(candidates.size() * 2);
+    for (Entry<Long, List<Long>> room : idsByRoom.entrySet()) {
+      Long roomId = room.getKey();
+      for (ChatMsgDto chatMsg : chatMsgCustomRepository.findByIds(roomId, room.getValue())) {
+        found.put(chatMsg.getChatMsgId(), ChatMsgSearchDto.of(roomId, chatMsg));
+      }
+      for (Long id : room.getValue()) {
+        if (found.containsKey(id)) {
+          continue;
+        }
+        List<ChatMsgDto> recent = recentChatMsgBuffer.findAfter(roomId, id - 1, 1,
+            recentLoader(roomId));
+        if (recent != null && !recent.isEmpty() && recent.get(0).getChatMsgId().equals(id)) {
+          found.put(id, ChatMsgSearchDto.of(roomId, recent.get(0)));
+        }
+      }
+    }
+    return found;
+  }
+
+  private static boolean containsAll(String message, List<String> phrases) {
+    for (String phrase : phrases) {
+      if (message == null || !message.contains(phrase)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Supplier<List<ChatMsgDto>> recentLoader(Long roomId) {
+    return () -> chatMsgCustomRepository
+        .findChatRoomIdByChatMsgBefore(roomId, null, recentChatMsgBuffer.capacityPerRoom());
+  }
+
+  private static int pageSize(Integer size) {
+    return size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+  }
+
+  private void checkMember(Long roomId, Long userId) {
+    if (!roomMembershipIndex.isMember(roomId, userId)) {
+      throw new CustomException(ErrorCode.NOT_ROOM_MEMBER);
+    }
   }
 }
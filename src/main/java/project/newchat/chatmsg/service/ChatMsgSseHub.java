@@ -0,0 +1,343 @@
+package project.newchat.chatmsg.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+import project.newchat.chatmsg.dto.ChatMsgDto;
+import project.newchat.chatroom.service.RoomMembershipIndex;
+import project.newchat.common.broadcast.ChatBroadcastBus;
+import project.newchat.common.exception.CustomException;
+import project.newchat.common.type.ChatEnvelopeType;
+import project.newchat.common.type.ErrorCode;
+
+/**
+ * 채팅방 메시지 SSE 스트림.
+ * lastId 이후 메시지를 먼저 보내고(replay), 이후에는 브로드캐스트 버스로 들어오는 새 메시지를 전송한다.
+ * 구독자마다 buffer-size 개까지만 쌓아두고 넘치면 스트림을 종료한다 (클라이언트는 마지막 ID로 재연결).
+ * replay 는 요청 스레드에서 최대 replay-max 개를 보내는 동안 새 메시지가 쌓이므로 lastId 가 있는 구독자는 replay-max 만큼 더 쌓아둔다.
+ * 새 메시지는 ID 순서대로 발행되지 않으므로 중복 제거는 replay 중에 쌓인 메시지에만 적용한다.
+ * 전송은 별도 스레드에서 하므로 요청 스레드와 버스 발행 스레드를 붙잡지 않는다.
+ */
+@Slf4j
+@Component
+public class ChatMsgSseHub {
+
+  private static final int REPLAY_PAGE_SIZE = 100;
+
+  private final ChatMsgService chatMsgService;
+
+  private final ChatBroadcastBus chatBroadcastBus;
+
+  private final RoomMembershipIndex roomMembershipIndex;
+
+  private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+
+  private final long timeoutMs;
+
+  private final int bufferSize;
+
+  private final int replayMax;
+
+  private final long heartbeatMs;
+
+  private final ExecutorService sender;
+
+  private final ScheduledExecutorService heartbeat =
+      Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "chat-sse-heartbeat"));
+
+  public ChatMsgSseHub(
+      ChatMsgService chatMsgService,
+      ChatBroadcastBus chatBroadcastBus,
+      RoomMembershipIndex roomMembershipIndex,
+      @Value("${chat.sse.timeout-ms:1800000}") long timeoutMs,
+      @Value("${chat.sse.buffer-size:256}") int bufferSize,
+      @Value("${chat.sse.replay-max:1000}") int replayMax,
+      @Value("${chat.sse.heartbeat-ms:15000}") long heartbeatMs,
+      @Value("${chat.sse.sender-threads:4}") int senderThreads) {
+    this.chatMsgService = chatMsgService;
+    this.chatBroadcastBus = chatBroadcastBus;
+    this.roomMembershipIndex = roomMembershipIndex;
+    this.timeoutMs = timeoutMs;
+    this.bufferSize = bufferSize;
+    this.replayMax = replayMax;
+    this.heartbeatMs = heartbeatMs;
+    this.sender = Executors.newFixedThreadPool(senderThreads, r -> daemon(r, "chat-sse-sender"));
+  }
+
+  @PostConstruct
+  public void start() {
+    heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatMs, heartbeatMs,
+        TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    heartbeat.shutdownNow();
+    sender.shutdownNow();
+    rooms.values().forEach(room -> room.subscribers.forEach(Subscriber::complete));
+  }
+
+  /**
+   * 스트림 구독. lastId 가 있으면 그 이후 메시지부터 보낸다.
+   */
+  public SseEmitter subscribe(Long roomId, Long userId, Long lastId) {
+    return subscribe(roomId, userId, lastId, new SseEmitter(timeoutMs));
+  }
+
+  // 테스트에서 전송한 이벤트를 확인할 수 있도록 emitter 를 받는다.
+  SseEmitter subscribe(Long roomId, Long userId, Long lastId, SseEmitter emitter) {
+    if (!roomMembershipIndex.isMember(roomId, userId)) {
+      throw new CustomException(ErrorCode.NOT_ROOM_MEMBER);
+    }
+    Subscriber subscriber = new Subscriber(roomId, userId, emitter,
+        lastId == null ? bufferSize : bufferSize + replayMax);
+    emitter.onCompletion(() -> remove(subscriber));
+    emitter.onTimeout(() -> remove(subscriber));
+    emitter.onError(e -> remove(subscriber));
+
+    // replay 중에 들어온 새 메시지는 버퍼에 쌓였다가 replay 이후 전송 (replay 로 보낸 ID 까지는 건너뜀)
+    add(subscriber);
+    long replayedUpTo = lastId == null ? 0 : replay(subscriber, userId, lastId);
+    subscriber.startLive(replayedUpTo);
+    return emitter;
+  }
+
+  public int subscriberCount() {
+    return rooms.values().stream().mapToInt(room -> room.subscribers.size()).sum();
+  }
+
+  // replay 로 보낸 마지막 메시지 ID 반환 (보낸 메시지가 없으면 0)
+  private long replay(Subscriber subscriber, Long userId, Long lastId) {
+    long cursor = lastId;
+    long sentUpTo = 0;
+    int replayed = 0;
+    while (replayed < replayMax) {
+      List<ChatMsgDto> page = chatMsgService.getRoomChatMsgList(
+          subscriber.roomId, userId, cursor, null, Math.min(REPLAY_PAGE_SIZE, replayMax - replayed));
+      for (ChatMsgDto chatMsg : page) {
+        if (!subscriber.send(toEnvelope(subscriber.roomId, chatMsg))) {
+          return sentUpTo;
+        }
+        cursor = chatMsg.getChatMsgId();
+        sentUpTo = cursor;
+      }
+      replayed += page.size();
+      if (page.size() < REPLAY_PAGE_SIZE) {
+        return sentUpTo;
+      }
+    }
+    // 놓친 메시지가 replay-max 보다 많으면 나머지는 목록 API 로 조회하도록 알림
+    subscriber.sendEvent(SseEmitter.event().name("truncated").data(cursor));
+    return sentUpTo;
+  }
+
+  // 버스 구독/해제는 방 map 의 compute 밖에서, 방마다 두는 락 안에서 한다.
+  private void add(Subscriber subscriber) {
+    Long roomId = subscriber.roomId;
+    while (true) {
+      Room room = rooms.computeIfAbsent(roomId, id -> new Room());
+      synchronized (room) {
+        if (room.closed) {
+          continue; // 마지막 구독자가 빠져서 닫힌 방 -> 새로 만든다.
+        }
+        if (room.subscribers.isEmpty()) {
+          chatBroadcastBus.subscribe(roomId, room.listener);
+        }
+        room.subscribers.add(subscriber);
+        return;
+      }
+    }
+  }
+
+  private void remove(Subscriber subscriber) {
+    Long roomId = subscriber.roomId;
+    Room room = rooms.get(roomId);
+    if (room == null) {
+      return;
+    }
+    synchronized (room) {
+      if (!room.subscribers.remove(subscriber) || !room.subscribers.isEmpty()) {
+        return;
+      }
+      // 해제가 끝날 때까지 map 에 남겨 두어서, 그동안 들어온 구독이 해제 뒤에 다시 버스를 구독하게 한다.
+      room.closed = true;
+      try {
+        chatBroadcastBus.unsubscribe(roomId, room.listener);
+      } finally {
+        rooms.remove(roomId, room);
+      }
+    }
+  }
+
+  // 버스 발행 스레드에서 호출 -> 버퍼에 넣기만 하고 바로 반환
+  private void dispatch(ChatEnvelope envelope) {
+    Room room = rooms.get(envelope.getRoomId());
+    if (room == null) {
+      return;
+    }
+    Set<Subscriber> subscribers = room.subscribers;
+    if (envelope.getType() == ChatEnvelopeType.LEAVE) {
+      // 방에서 나간 유저의 스트림 종료
+      subscribers.stream()
+          .filter(subscriber -> subscriber.userId.equals(envelope.getSenderId()))
+          .forEach(Subscriber::complete);
+      return;
+    }
+    if (envelope.getType() == ChatEnvelopeType.ROOM_DELETED) {
+      subscribers.forEach(Subscriber::complete);
+      return;
+    }
+    subscribers.forEach(subscriber -> subscriber.offer(envelope));
+  }
+
+  private void sendHeartbeats() {
+    rooms.values().forEach(room -> room.subscribers.forEach(subscriber ->
+        sender.execute(() -> subscriber.sendEvent(SseEmitter.event().comment("heartbeat")))));
+  }
+
+  private static ChatEnvelope toEnvelope(Long roomId, ChatMsgDto chatMsg) {
+    return ChatEnvelope.builder()
+        .messageId(chatMsg.getChatMsgId())
+        .roomId(roomId)
+        .senderId(chatMsg.getUserId())
+        .from(chatMsg.getNickname())
+        .message(chatMsg.getMessage())
+        .sendTime(chatMsg.getSendTime())
+        .build();
+  }
+
+  private static Thread daemon(Runnable runnable, String name) {
+    Thread thread = new Thread(runnable, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  /**
+   * 방 하나의 구독자와 버스 listener. 구독/해제는 이 객체로 동기화한다.
+   */
+  private class Room {
+
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+
+    private final Consumer<ChatEnvelope> listener = ChatMsgSseHub.this::dispatch;
+
+    private boolean closed;
+  }
+
+  private class Subscriber {
+
+    private final Long roomId;
+
+    private final Long userId;
+
+    private final SseEmitter emitter;
+
+    private final BlockingQueue<ChatEnvelope> buffer;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private volatile boolean live;
+
+    // replay 가 끝날 때 버퍼에 쌓여 있던 메시지 수와 replay 로 보낸 마지막 ID (drain 스레드에서만 갱신)
+    private int replayBuffered;
+
+    private long replayedUpTo;
+
+    Subscriber(Long roomId, Long userId, SseEmitter emitter, int capacity) {
+      this.roomId = roomId;
+      this.userId = userId;
+      this.emitter = emitter;
+      this.buffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    void offer(ChatEnvelope envelope) {
+      if (!buffer.offer(envelope)) {
+        // 느린 구독자는 종료 -> 클라이언트가 마지막 ID 로 재연결해서 replay
+        log.info("SSE 구독자 버퍼 초과로 스트림 종료 roomId={}", roomId);
+        complete();
+        return;
+      }
+      scheduleDrain();
+    }
+
+    void startLive(long replayedUpTo) {
+      this.replayedUpTo = replayedUpTo;
+      this.replayBuffered = buffer.size();
+      live = true;
+      scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+      if (live && !buffer.isEmpty() && draining.compareAndSet(false, true)) {
+        sender.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      try {
+        ChatEnvelope envelope;
+        while ((envelope = buffer.poll()) != null) {
+          if (replayBuffered > 0) {
+            replayBuffered--;
+            Long messageId = envelope.getMessageId();
+            if (messageId != null && messageId <= replayedUpTo) {
+              continue; // replay 로 이미 보낸 메시지
+            }
+          }
+          if (!send(envelope)) {
+            return;
+          }
+        }
+      } finally {
+        draining.set(false);
+      }
+      // drain 종료 직전에 들어온 메시지 처리
+      scheduleDrain();
+    }
+
+    boolean send(ChatEnvelope envelope) {
+      SseEmitter.SseEventBuilder event = SseEmitter.event()
+          .name("message")
+          .data(envelope, MediaType.APPLICATION_JSON);
+      if (envelope.getMessageId() != null) {
+        event.id(String.valueOf(envelope.getMessageId()));
+      }
+      return sendEvent(event);
+    }
+
+    synchronized boolean sendEvent(SseEmitter.SseEventBuilder event) {
+      try {
+        emitter.send(event);
+        return true;
+      } catch (IOException | IllegalStateException e) {
+        // 연결이 끊긴 구독자
+        complete();
+        return false;
+      }
+    }
+
+    void complete() {
+      remove(this);
+      emitter.complete();
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package project.newchat.chatmsg.service;
+
+import java.lang.Character.UnicodeScript;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 검색 인덱스용 토큰 분리.
+ * 한글(한자/가나 포함)은 띄어쓰기 없이 조사가 붙으므로 글자 단위 1-gram + 2-gram 으로,
+ * 그 밖의 문자/숫자는 단어 단위(소문자)로 자른다. 문장 부호와 공백은 구분자다.
+ * 색인과 검색어에 같은 규칙을 쓰므로 "채팅방" 검색은 "채팅방에서" 에도 맞는다.
+ */
+final class ChatMsgTokenizer {
+
+  // 지나치게 긴 단어(URL 등)는 앞부분만 색인
+  static final int MAX_WORD_LENGTH = 32;
+
+  private ChatMsgTokenizer() {
+  }
+
+  // 중복 없는 토큰 (등장 순서 유지)
+  static Set<String> tokens(String text) {
+    Set<String> tokens = new LinkedHashSet<>();
+    if (text == null) {
+      return tokens;
+    }
+    String lower = text.toLowerCase(Locale.ROOT);
+    int i = 0;
+    while (i < lower.length()) {
+      int cp = lower.codePointAt(i);
+      if (isCjk(cp)) {
+        int end = runEnd(lower, i, true);
+        addGrams(lower, i, end, tokens);
+        i = end;
+      } else if (Character.isLetterOrDigit(cp)) {
+        int end = runEnd(lower, i, false);
+        tokens.add(lower.substring(i, lower.offsetByCodePoints(i,
+            Math.min(lower.codePointCount(i, end), MAX_WORD_LENGTH))));
+        i = end;
+      } else {
+        i += Character.charCount(cp);
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * 2-gram 이 모두 있어도 이어져 있지 않을 수 있는 3글자 이상 한글 구간.
+   * 인덱스로 찾은 메시지가 실제로 이 구간을 포함하는지 다시 확인한다.
+   */
+  static List<String> cjkPhrases(String text) {
+    List<String> phrases = new ArrayList<>();
+    int i = 0;
+    while (i < text.length()) {
+      int cp = text.codePointAt(i);
+      if (isCjk(cp)) {
+        int end = runEnd(text, i, true);
+        if (text.codePointCount(i, end) >= 3) {
+          phrases.add(text.substring(i, end));
+        }
+        i = end;
+      } else {
+        i += Character.charCount(cp);
+      }
+    }
+    return phrases;
+  }
+
+  private static void addGrams(String text, int from, int to, Set<String> tokens) {
+    int i = from;
+    while (i < to) {
+      int next = text.offsetByCodePoints(i, 1);
+      tokens.add(text.substring(i, next));
+      if (next < to) {
+        tokens.add(text.substring(i, text.offsetByCodePoints(next, 1)));
+      }
+      i = next;
+    }
+  }
+
+  private static int runEnd(String text, int from, boolean cjk) {
+    int i = from;
+    while (i < text.length()) {
+      int cp = text.codePointAt(i);
+      if (cjk ? !isCjk(cp) : isCjk(cp) || !Character.isLetterOrDigit(cp)) {
+        break;
+      }
+      i += Character.charCount(cp);
+    }
+    return i;
+  }
+
+  private static boolean isCjk(int cp) {
+    UnicodeScript script = UnicodeScript.of(cp);
+    return script == UnicodeScript.HANGUL || script == UnicodeScript.HAN
+        || script == UnicodeScript.HIRAGANA || script == UnicodeScript.KATAKANA;
+  }
+}
@@ -0,0 +1,222 @@
+package project.newchat.chatmsg.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import project.newchat.chatmsg.dto.ChatMsgDto;
+import project.newchat.common.broadcast.PubSubBroker;
+
+/**
+ * 채팅방별 최근 메시지 링 버퍼.
+ * 방마다 최근 capacity-per-room 개의 메시지를 ID 순으로 보관하고,
+ * 오래 조회/전송이 없는 방은 LRU 로 제거해서 전체 메모리를 max-rooms * capacity-per-room 건으로 제한한다.
+ * 버퍼는 이 서버에서 보낸 메시지로만 갱신되므로 PubSubBroker 로 여러 서버가 메시지를 나눠 받는 구성에서는 쓰지 않는다.
+ * (다른 서버에서 보낸 메시지가 빠진 채로 floor 이후 구간을 모두 가진 것처럼 응답하게 된다)
+ * 이때 이력 조회는 항상 DB 에서 읽고, 아직 write-behind 로 저장되지 않은 최근 메시지는 저장 후에 보인다.
+ */
+@Component
+public class RecentChatMsgBuffer {
+
+  private final int capacityPerRoom;
+
+  private final boolean enabled;
+
+  private final Map<Long, RoomBuffer> rooms;
+
+  @Autowired
+  public RecentChatMsgBuffer(
+      ObjectProvider<PubSubBroker> broker,
+      @Value("${chat.msg.recent.capacity-per-room:100}") int capacityPerRoom,
+      @Value("${chat.msg.recent.max-rooms:10000}") int maxRooms) {
+    this(capacityPerRoom, maxRooms, broker.getIfAvailable() == null);
+  }
+
+  public RecentChatMsgBuffer(int capacityPerRoom, int maxRooms) {
+    this(capacityPerRoom, maxRooms, true);
+  }
+
+  RecentChatMsgBuffer(int capacityPerRoom, int maxRooms, boolean enabled) {
+    this.capacityPerRoom = capacityPerRoom;
+    this.enabled = enabled;
+    // accessOrder = true -> 가장 오래 사용되지 않은 방부터 제거
+    this.rooms = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, RoomBuffer> eldest) {
+        return size() > maxRooms;
+      }
+    });
+  }
+
+  // 전송 시 버퍼 갱신 (버퍼가 없던 방은 이 메시지부터 보관)
+  public void append(Long roomId, ChatMsgDto chatMsg) {
+    if (!enabled) {
+      return;
+    }
+    RoomBuffer buffer = rooms.computeIfAbsent(roomId,
+        id -> new RoomBuffer(capacityPerRoom, chatMsg.getChatMsgId() - 1));
+    buffer.add(chatMsg);
+  }
+
+  /**
+   * lastId 이후 메시지를 최대 limit 개 반환. 버퍼 구간 밖이면 null (DB 조회 필요)
+   *
+   * @param loader 버퍼가 없는 방일 때 최근 메시지를 ID 내림차순으로 불러오는 함수 (최대 capacity-per-room 개)
+   */
+  public List<ChatMsgDto> findAfter(Long roomId, Long lastId, int limit,
+      Supplier<List<ChatMsgDto>> loader) {
+    if (!enabled) {
+      return null;
+    }
+    RoomBuffer buffer = rooms.get(roomId);
+    if (buffer == null) {
+      buffer = load(roomId, loader.get());
+    }
+    return buffer.after(lastId, limit);
+  }
+
+  /**
+   * beforeId 이전 메시지를 최신순으로 최대 limit 개 반환 (beforeId 가 null 이면 최신 메시지부터).
+   * 버퍼만으로 답할 수 없으면 null
+   */
+  public List<ChatMsgDto> findBefore(Long roomId, Long beforeId, int limit,
+      Supplier<List<ChatMsgDto>> loader) {
+    if (!enabled) {
+      return null;
+    }
+    RoomBuffer buffer = rooms.get(roomId);
+    if (buffer == null) {
+      buffer = load(roomId, loader.get());
+    }
+    return buffer.before(beforeId, limit);
+  }
+
+  public int capacityPerRoom() {
+    return capacityPerRoom;
+  }
+
+  public void evict(Long roomId) {
+    rooms.remove(roomId);
+  }
+
+  private RoomBuffer load(Long roomId, List<ChatMsgDto> latest) {
+    // 최근 메시지가 capacity 보다 적으면 방의 전체 이력을 가지고 있는 것
+    long floorId = latest.size() < capacityPerRoom
+        ? 0L
+        : latest.get(latest.size() - 1).getChatMsgId() - 1;
+    RoomBuffer loaded = new RoomBuffer(capacityPerRoom, floorId);
+    for (int i = latest.size() - 1; i >= 0; i--) {
+      loaded.add(latest.get(i));
+    }
+    // 로딩 중에 전송으로 먼저 만들어진 버퍼가 있으면 그 버퍼를 사용
+    RoomBuffer current = rooms.putIfAbsent(roomId, loaded);
+    return current == null ? loaded : current;
+  }
+
+  /**
+   * ID 오름차순 원형 버퍼. floorId 보다 큰 ID의 메시지는 모두 버퍼에 있다.
+   */
+  static class RoomBuffer {
+
+    private final ChatMsgDto[] ring;
+
+    private int start;
+
+    private int size;
+
+    private long floorId;
+
+    RoomBuffer(int capacity, long floorId) {
+      this.ring = new ChatMsgDto[capacity];
+      this.floorId = floorId;
+    }
+
+    synchronized void add(ChatMsgDto chatMsg) {
+      long id = chatMsg.getChatMsgId();
+      if (id <= floorId) {
+        return;
+      }
+      if (size == ring.length) {
+        // 가장 오래된 메시지를 밀어내고 floor 를 올린다.
+        floorId = get(0).getChatMsgId();
+        ring[start] = null;
+        start = (start + 1) % ring.length;
+        size--;
+        if (id <= floorId) {
+          return;
+        }
+      }
+      // 대부분 맨 뒤에 추가, 동시 전송으로 순서가 바뀐 경우만 자리를 찾아서 삽입
+      int index = size;
+      while (index > 0 && get(index - 1).getChatMsgId() > id) {
+        set(index, get(index - 1));
+        index--;
+      }
+      if (index > 0 && get(index - 1).getChatMsgId() == id) {
+        // 이미 있는 메시지 -> 밀어둔 칸을 원래대로
+        for (int i = index; i < size; i++) {
+          set(i, get(i + 1));
+        }
+        set(size, null);
+        return;
+      }
+      set(index, chatMsg);
+      size++;
+    }
+
+    synchronized List<ChatMsgDto> after(Long lastId, int limit) {
+      long from = lastId == null ? 0L : lastId;
+      if (from < floorId) {
+        return null;
+      }
+      int index = firstIndexAfter(from);
+      List<ChatMsgDto> result = new ArrayList<>(Math.min(limit, size - index));
+      for (int i = index; i < size && result.size() < limit; i++) {
+        result.add(get(i));
+      }
+      return result;
+    }
+
+    synchronized List<ChatMsgDto> before(Long beforeId, int limit) {
+      long to = beforeId == null ? Long.MAX_VALUE : beforeId;
+      int index = firstIndexAfter(to - 1) - 1; // beforeId 보다 작은 마지막 메시지
+      List<ChatMsgDto> result = new ArrayList<>(Math.min(limit, index + 1));
+      for (int i = index; i >= 0 && result.size() < limit; i--) {
+        result.add(get(i));
+      }
+      // 버퍼 맨 앞까지 내려갔는데 floor 아래에 이력이 더 있을 수 있으면 DB 조회
+      if (result.size() < limit && floorId > 0) {
+        return null;
+      }
+      return result;
+    }
+
+    private int firstIndexAfter(long id) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (get(mid).getChatMsgId() <= id) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    private ChatMsgDto get(int index) {
+      return ring[(start + index) % ring.length];
+    }
+
+    private void set(int index, ChatMsgDto chatMsg) {
+      ring[(start + index) % ring.length] = chatMsg;
+    }
+  }
+}
@@ -1,10 +1,8 @@
 package project.newchat.chatroom.controller;
 
-import java.util.List;
 import javax.servlet.http.HttpSession;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,10 +10,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import project.newchat.chatroom.controller.request.ChatRoomRequest;
 import project.newchat.chatroom.domain.ChatRoom;
-import project.newchat.chatroom.dto.ChatRoomDto;
+import project.newchat.chatroom.dto.ChatRoomSliceDto;
 import project.newchat.chatroom.service.ChatRoomService;
 import project.newchat.common.config.LoginCheck;
 import project.newchat.common.type.ResponseMessage;
@@ -54,13 +53,14 @@ public class ChatRoomController {
     return ResponseUtils.ok(ResponseMessage.JOIN_CHAT_ROOM_SUCCESS);
   }
 
-  // 전체 리스트
+  // 전체 리스트 (cursor: 이전 응답의 nextCursor, 없으면 첫 페이지)
   @GetMapping("/room")
   @LoginCheck
   public ResponseEntity<Object> roomList(
-      Pageable pageable) {
-    List<ChatRoomDto> roomList = chatRoomService.getRoomList(pageable);
-    if (roomList.size() == 0) {
+      @RequestParam(required = false) Long cursor,
+      @RequestParam(defaultValue = "20") int size) {
+    ChatRoomSliceDto roomList = chatRoomService.getRoomList(cursor, size);
+    if (roomList.getRooms().isEmpty()) {
       return ResponseUtils.notFound(ResponseMessage.NOT_EXIST_CHAT_ROOM);
     } else {
       return ResponseUtils
@@ -72,11 +72,13 @@ public class ChatRoomController {
   @GetMapping("/room/creator")
   @LoginCheck
   public ResponseEntity<Object> getByUserRoomList(
-      HttpSession session, Pageable pageable) {
+      HttpSession session,
+      @RequestParam(required = false) Long cursor,
+      @RequestParam(defaultValue = "20") int size) {
 
     Long userId = (Long) session.getAttribute("user");
-    List<ChatRoomDto> userByRoomList = chatRoomService.roomsByCreatorUser(userId, pageable);
-    if (userByRoomList.size() == 0) {
+    ChatRoomSliceDto userByRoomList = chatRoomService.roomsByCreatorUser(userId, cursor, size);
+    if (userByRoomList.getRooms().isEmpty()) {
       return ResponseUtils
           .notFound(ResponseMessage.NOT_EXIST_CHAT_ROOM_BY_USER_SELF);
     } else {
@@ -89,11 +91,13 @@ public class ChatRoomController {
   @GetMapping("/room/part")
   @LoginCheck
   public ResponseEntity<Object> getByUserRoomPartList(
-      HttpSession session, Pageable pageable) {
+      HttpSession session,
+      @RequestParam(required = false) Long cursor,
+      @RequestParam(defaultValue = "20") int size) {
     Long userId = (Long) session.getAttribute("user");
-    List<ChatRoomDto> userByRoomPartList = chatRoomService
-        .getUserByRoomPartList(userId, pageable);
-    if (userByRoomPartList.size() == 0) {
+    ChatRoomSliceDto userByRoomPartList = chatRoomService
+        .getUserByRoomPartList(userId, cursor, size);
+    if (userByRoomPartList.getRooms().isEmpty()) {
       return ResponseUtils
           .notFound(ResponseMessage.NOT_EXIST_CHAT_ROOM_BY_USER_SELF_PART);
     } else {
@@ -102,6 +106,16 @@ public class ChatRoomController {
     }
   }
 
+  // 방을 담당하는 서버의 WebSocket 주소 (여러 서버로 라우팅할 때 이 주소로 접속)
+  @GetMapping("/room/{roomId}/node")
+  @LoginCheck
+  public ResponseEntity<Object> roomNode(
+      @PathVariable Long roomId, HttpSession session) {
+    Long userId = (Long) session.getAttribute("user");
+    return ResponseUtils.ok(ResponseMessage.CHAT_ROOM_NODE_SELECT_SUCCESS,
+        chatRoomService.getRoomNode(roomId, userId));
+  }
+
   // 채팅방 나가기
   @DeleteMapping("/room/out/{roomId}")
   @LoginCheck
@@ -4,7 +4,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Where;
 import project.newchat.chatmsg.domain.ChatMsg;
+import project.newchat.common.id.ChatIdentifierGenerator;
 import project.newchat.user.domain.User;
 import project.newchat.userchatroom.domain.UserChatRoom;
 
@@ -13,13 +17,16 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_chat_room_creator", columnList = "roomCreator, chat_room_id"))
+@Where(clause = "deleted = false") // 삭제 표시된 방은 조회되지 않음
 @Builder
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatRoom {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = ChatIdentifierGenerator.NAME)
+    @GenericGenerator(name = ChatIdentifierGenerator.NAME, strategy = ChatIdentifierGenerator.STRATEGY)
     @Column(name = "chat_room_id")
     private Long id;
 
@@ -33,6 +40,14 @@ public class ChatRoom {
 
     private Integer userCountMax; // 최대 인원 8명
 
+    @Builder.Default
+    @ColumnDefault("0")
+    private Long currentUserCount = 0L; // 현재 인원 (입장/퇴장 시 조건부 UPDATE 로 관리)
+
+    @Builder.Default
+    @ColumnDefault("false")
+    private Boolean deleted = false; // 삭제 표시 (메시지/참여 정보는 ChatRoomPurger 가 나눠서 삭제)
+
 
     @OneToMany(mappedBy = "chatRoom", fetch = FetchType.LAZY)
     private List<UserChatRoom> userChatRooms;
@@ -49,7 +64,8 @@ public class ChatRoom {
             ", updatedAt=" + updatedAt +
             ", roomCreator=" + roomCreator +
             ", userCountMax=" + userCountMax +
-            ", userChatRooms=" + userChatRooms.size() +
+            ", currentUserCount=" + currentUserCount +
+            ", deleted=" + deleted +
             '}';
     }
 }
@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import project.newchat.chatroom.domain.ChatRoom;
+import project.newchat.common.id.JsonId;
 
 @Getter
 @Setter
@@ -13,6 +14,7 @@ import project.newchat.chatroom.domain.ChatRoom;
 @AllArgsConstructor
 @Builder
 public class ChatRoomDto {
+  @JsonId
   private Long id;
 
   private String title;
@@ -25,7 +27,7 @@ public class ChatRoomDto {
     return ChatRoomDto.builder()
         .id(chatRoom.getId())
         .title(chatRoom.getTitle())
-        .currentUserCount((long) chatRoom.getUserChatRooms().size())
+        .currentUserCount(chatRoom.getCurrentUserCount())
         .userCountMax(chatRoom.getUserCountMax())
         .build();
   }
@@ -0,0 +1,19 @@
+package project.newchat.chatroom.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import project.newchat.common.id.JsonId;
+
+// 방을 담당하는 서버의 WebSocket 주소 (라우팅을 쓰지 않으면 같은 서버 기준 경로)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatRoomNodeDto {
+  @JsonId
+  private Long roomId;
+
+  private String url; // 예: ws://chat-2:8080/ws/chat/{roomId}, 라우팅 미사용 시 /ws/chat/{roomId}
+}
@@ -0,0 +1,33 @@
+package project.newchat.chatroom.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Slice;
+import project.newchat.common.id.JsonId;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatRoomSliceDto {
+  private List<ChatRoomDto> rooms;
+
+  private boolean hasNext;
+
+  @JsonId
+  private Long nextCursor; // 다음 페이지 요청 시 cursor 로 전달 (마지막 방 ID)
+
+  public static ChatRoomSliceDto of(Slice<ChatRoomDto> slice) {
+    List<ChatRoomDto> rooms = slice.getContent();
+    return ChatRoomSliceDto.builder()
+        .rooms(rooms)
+        .hasNext(slice.hasNext())
+        .nextCursor(slice.hasNext() ? rooms.get(rooms.size() - 1).getId() : null)
+        .build();
+  }
+}
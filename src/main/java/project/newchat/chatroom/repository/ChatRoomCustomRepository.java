@@ -0,0 +1,13 @@
+package project.newchat.chatroom.repository;
+
+import org.springframework.data.domain.Slice;
+import project.newchat.chatroom.dto.ChatRoomDto;
+
+public interface ChatRoomCustomRepository {
+
+  Slice<ChatRoomDto> findRoomSlice(Long cursor, int size);
+
+  Slice<ChatRoomDto> findRoomSliceByCreator(Long userId, Long cursor, int size);
+
+  Slice<ChatRoomDto> findRoomSliceByMember(Long userId, Long cursor, int size);
+}
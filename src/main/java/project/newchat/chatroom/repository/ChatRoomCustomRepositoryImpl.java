@@ -0,0 +1,84 @@
+package project.newchat.chatroom.repository;
+
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Repository;
+import project.newchat.chatroom.dto.ChatRoomDto;
+
+/*
+ 방 목록 keyset 페이징 (offset, count(*) 없음)
+ select c.chat_room_id, c.title, c.current_user_count, c.user_count_max
+ from chat_room c
+ where c.chat_room_id < :cursor
+ order by c.chat_room_id desc
+ limit :size + 1;
+ ID가 시간순으로 발급되므로 chat_room_id 역순 = 최신 생성순
+ 삭제 표시된 방은 ChatRoom 의 @Where 로 제외 (참여 방 목록의 join 은 조건을 직접 지정)
+ */
+@Repository
+@RequiredArgsConstructor
+public class ChatRoomCustomRepositoryImpl implements ChatRoomCustomRepository {
+
+  private static final String SELECT_DTO = "select new project.newchat.chatroom.dto.ChatRoomDto("
+      + "c.id, c.title, c.currentUserCount, c.userCountMax) ";
+
+  private final EntityManager entityManager;
+
+  @Override
+  public Slice<ChatRoomDto> findRoomSlice(Long cursor, int size) {
+    String first = SELECT_DTO + "from ChatRoom c order by c.id desc";
+    String paging = SELECT_DTO + "from ChatRoom c where c.id < :cursor order by c.id desc";
+
+    TypedQuery<ChatRoomDto> query = entityManager
+        .createQuery(cursor == null ? first : paging, ChatRoomDto.class);
+    return toSlice(bindCursor(query, cursor), size);
+  }
+
+  @Override
+  public Slice<ChatRoomDto> findRoomSliceByCreator(Long userId, Long cursor, int size) {
+    String first = SELECT_DTO + "from ChatRoom c where c.roomCreator = :userId "
+        + "order by c.id desc";
+    String paging = SELECT_DTO + "from ChatRoom c where c.roomCreator = :userId "
+        + "and c.id < :cursor order by c.id desc";
+
+    TypedQuery<ChatRoomDto> query = entityManager
+        .createQuery(cursor == null ? first : paging, ChatRoomDto.class)
+        .setParameter("userId", userId);
+    return toSlice(bindCursor(query, cursor), size);
+  }
+
+  @Override
+  public Slice<ChatRoomDto> findRoomSliceByMember(Long userId, Long cursor, int size) {
+    String first = SELECT_DTO + "from UserChatRoom u join u.chatRoom c "
+        + "where u.user.id = :userId and c.deleted = false order by c.id desc";
+    String paging = SELECT_DTO + "from UserChatRoom u join u.chatRoom c "
+        + "where u.user.id = :userId and c.deleted = false and c.id < :cursor "
+        + "order by c.id desc";
+
+    TypedQuery<ChatRoomDto> query = entityManager
+        .createQuery(cursor == null ? first : paging, ChatRoomDto.class)
+        .setParameter("userId", userId);
+    return toSlice(bindCursor(query, cursor), size);
+  }
+
+  private static TypedQuery<ChatRoomDto> bindCursor(TypedQuery<ChatRoomDto> query, Long cursor) {
+    return cursor == null ? query : query.setParameter("cursor", cursor);
+  }
+
+  // size + 1 건을 조회해서 다음 페이지 존재 여부만 판단
+  private static Slice<ChatRoomDto> toSlice(TypedQuery<ChatRoomDto> query, int size) {
+    List<ChatRoomDto> rooms = query
+        .setMaxResults(size + 1)
+        .getResultList();
+    boolean hasNext = rooms.size() > size;
+    if (hasNext) {
+      rooms = rooms.subList(0, size);
+    }
+    return new SliceImpl<>(rooms, PageRequest.of(0, size), hasNext);
+  }
+}
@@ -3,16 +3,14 @@ package project.newchat.chatroom.repository;
 import java.util.Optional;
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import project.newchat.chatroom.domain.ChatRoom;
-import project.newchat.chatroom.dto.ChatRoomDto;
 
 @Repository
 public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
@@ -23,9 +21,21 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
 
   Optional<ChatRoom> findChatRoomById(Long id);
 
-  @Query("select c from ChatRoom c where c.roomCreator=:userId")
-  Page<ChatRoom> findAllByUserId(@Param("userId")Long userId,Pageable pageable); //
+  // 정원 미만일 때만 인원 증가 (0 이면 방이 없거나 정원 초과)
+  @Modifying(flushAutomatically = true)
+  @Query("update ChatRoom c set c.currentUserCount = c.currentUserCount + 1 "
+      + "where c.id = :roomId and c.currentUserCount < c.userCountMax and c.deleted = false")
+  int increaseUserCount(@Param("roomId") Long roomId);
 
-  Page<ChatRoom> findAllByUserChatRoomsUserId(Long userId,Pageable pageable);
+  @Modifying(flushAutomatically = true)
+  @Query("update ChatRoom c set c.currentUserCount = c.currentUserCount - 1 "
+      + "where c.id = :roomId and c.currentUserCount > 0")
+  int decreaseUserCount(@Param("roomId") Long roomId);
+
+  // 삭제 표시만 하고 바로 반환 (실제 삭제는 ChatRoomPurger)
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update ChatRoom c set c.deleted = true, c.updatedAt = CURRENT_TIMESTAMP "
+      + "where c.id = :roomId and c.deleted = false")
+  int markDeleted(@Param("roomId") Long roomId);
 
 }
@@ -0,0 +1,158 @@
+package project.newchat.chatroom.service;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import project.newchat.chatmsg.repository.ChatMsgArchive;
+import project.newchat.common.metrics.ChatMetrics;
+
+/**
+ * 삭제 표시된 채팅방 정리.
+ * 메시지/참여 정보를 chunk-size 건씩 DELETE ... LIMIT 로 나눠서 지우고(문장마다 자동 커밋, 짧은 락),
+ * 남은 행이 없으면 방과 방의 메시지 아카이브 파일을 삭제한다. 중간에 종료되어도 다음 실행에서 이어서 지운다.
+ */
+@Slf4j
+@Component
+public class ChatRoomPurger {
+
+  private static final String SELECT_DELETED_ROOMS =
+      "select chat_room_id from chat_room where deleted = true order by chat_room_id limit ?";
+  private static final String DELETE_CHAT_MSG =
+      "delete from chat_msg where chat_room_id = ? limit ?";
+  private static final String DELETE_USER_CHAT_ROOM =
+      "delete from user_chat_room where chat_room_id = ? limit ?";
+  private static final String DELETE_ROOM =
+      "delete from chat_room where chat_room_id = ? and deleted = true";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final ChatMsgArchive chatMsgArchive;
+
+  private final ChatMetrics chatMetrics;
+
+  private final boolean enabled;
+
+  private final int chunkSize;
+
+  private final long chunkPauseMs;
+
+  private final int roomsPerRun;
+
+  private final long intervalMs;
+
+  // 마지막 실행에서 찾은 정리 대상 방 수 (최대 rooms-per-run)
+  private final AtomicInteger backlog = new AtomicInteger();
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "chat-room-purger");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public ChatRoomPurger(
+      JdbcTemplate jdbcTemplate,
+      ChatMsgArchive chatMsgArchive,
+      ChatMetrics chatMetrics,
+      @Value("${chat.room.purge.enabled:true}") boolean enabled,
+      @Value("${chat.room.purge.chunk-size:1000}") int chunkSize,
+      @Value("${chat.room.purge.chunk-pause-ms:10}") long chunkPauseMs,
+      @Value("${chat.room.purge.rooms-per-run:10}") int roomsPerRun,
+      @Value("${chat.room.purge.interval-ms:5000}") long intervalMs) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.chatMsgArchive = chatMsgArchive;
+    this.chatMetrics = chatMetrics;
+    this.enabled = enabled;
+    this.chunkSize = chunkSize;
+    this.chunkPauseMs = chunkPauseMs;
+    this.roomsPerRun = roomsPerRun;
+    this.intervalMs = intervalMs;
+    chatMetrics.gauge("chat.room.purge.backlog", "정리 대기 중인 삭제 표시 방 수",
+        backlog, AtomicInteger::get);
+  }
+
+  @PostConstruct
+  public void start() {
+    if (enabled) {
+      scheduler.scheduleWithFixedDelay(this::run, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  private void run() {
+    try {
+      purgeDeletedRooms();
+    } catch (RuntimeException e) {
+      log.error("삭제된 채팅방 정리 오류", e);
+    }
+  }
+
+  /**
+   * 삭제 표시된 방을 최대 rooms-per-run 개 정리하고 정리한 방 수를 반환
+   */
+  public int purgeDeletedRooms() {
+    List<Long> roomIds = jdbcTemplate.queryForList(SELECT_DELETED_ROOMS, Long.class, roomsPerRun);
+    backlog.set(roomIds.size());
+    int purged = 0;
+    for (Long roomId : roomIds) {
+      if (Thread.currentThread().isInterrupted()) {
+        break;
+      }
+      if (purgeRoom(roomId)) {
+        purged++;
+        backlog.decrementAndGet();
+      }
+    }
+    return purged;
+  }
+
+  private boolean purgeRoom(Long roomId) {
+    long chatMsgs = deleteInChunks(ChatMetrics.TABLE_CHAT_MSG, DELETE_CHAT_MSG, roomId);
+    long members = deleteInChunks(ChatMetrics.TABLE_USER_CHAT_ROOM, DELETE_USER_CHAT_ROOM, roomId);
+    try {
+      jdbcTemplate.update(DELETE_ROOM, roomId);
+    } catch (DataAccessException e) {
+      // 정리 중에 저장된 메시지가 남아 있으면 FK 위반 -> 다음 실행에서 다시 정리
+      log.warn("채팅방 삭제 보류 roomId={}: {}", roomId, e.getMessage());
+      return false;
+    }
+    chatMsgArchive.deleteRoom(roomId);
+    chatMetrics.purgedRoom();
+    log.info("삭제된 채팅방 정리 완료 roomId={}, chatMsgs={}, members={}", roomId, chatMsgs, members);
+    return true;
+  }
+
+  private long deleteInChunks(String table, String sql, Long roomId) {
+    long total = 0;
+    while (true) {
+      long start = System.nanoTime();
+      int deleted = jdbcTemplate.update(sql, roomId, chunkSize);
+      chatMetrics.purgeChunk(table, start, deleted);
+      total += deleted;
+      if (deleted < chunkSize) {
+        return total;
+      }
+      // 다른 쓰기 트랜잭션이 끼어들 수 있도록 chunk 사이에 잠깐 쉰다.
+      if (chunkPauseMs > 0) {
+        try {
+          Thread.sleep(chunkPauseMs);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return total;
+        }
+      }
+    }
+  }
+}
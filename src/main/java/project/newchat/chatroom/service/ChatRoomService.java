@@ -1,9 +1,8 @@
 package project.newchat.chatroom.service;
 
-import java.util.List;
-import org.springframework.data.domain.Pageable;
 import project.newchat.chatroom.controller.request.ChatRoomRequest;
-import project.newchat.chatroom.dto.ChatRoomDto;
+import project.newchat.chatroom.dto.ChatRoomNodeDto;
+import project.newchat.chatroom.dto.ChatRoomSliceDto;
 
 public interface ChatRoomService {
 
@@ -12,12 +11,14 @@ public interface ChatRoomService {
 
   void joinRoom(Long roomId, Long userId);
 
-  List<ChatRoomDto> getRoomList(Pageable pageable);
+  ChatRoomSliceDto getRoomList(Long cursor, int size);
 
 
-  List<ChatRoomDto> roomsByCreatorUser(Long userId, Pageable pageable);
+  ChatRoomSliceDto roomsByCreatorUser(Long userId, Long cursor, int size);
 
-  List<ChatRoomDto> getUserByRoomPartList(Long userId, Pageable pageable);
+  ChatRoomSliceDto getUserByRoomPartList(Long userId, Long cursor, int size);
+
+  ChatRoomNodeDto getRoomNode(Long roomId, Long userId);
 
   void outRoom(Long userId, Long roomId);
 
@@ -1,5 +1,6 @@
 package project.newchat.chatroom.service;
 
+import static project.newchat.common.util.TransactionUtils.afterCommit;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -7,21 +8,36 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import project.newchat.chatmsg.repository.ChatMsgRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+import project.newchat.chatmsg.service.ChatMsgSearchIndex;
+import project.newchat.chatmsg.service.RecentChatMsgBuffer;
 import project.newchat.chatroom.controller.request.ChatRoomRequest;
 import project.newchat.chatroom.domain.ChatRoom;
-import project.newchat.chatroom.dto.ChatRoomDto;
+import project.newchat.chatroom.dto.ChatRoomNodeDto;
+import project.newchat.chatroom.dto.ChatRoomSliceDto;
+import project.newchat.chatroom.repository.ChatRoomCustomRepository;
 import project.newchat.chatroom.repository.ChatRoomRepository;
+import project.newchat.common.broadcast.ChatBroadcastBus;
+import project.newchat.common.config.WebSocketConfig;
 import project.newchat.common.exception.CustomException;
+import project.newchat.common.id.IdGenerator;
+import project.newchat.common.metrics.ChatMetrics;
+import project.newchat.common.routing.RoomRouter;
+import project.newchat.common.type.ChatEnvelopeType;
 import project.newchat.common.type.ErrorCode;
+import project.newchat.common.type.RoomJoinMode;
 import project.newchat.user.domain.User;
+import project.newchat.user.dto.UserSummary;
 import project.newchat.user.repository.UserRepository;
+import project.newchat.user.service.UserSummaryCache;
 import project.newchat.userchatroom.domain.UserChatRoom;
 import project.newchat.userchatroom.repository.UserChatRoomRepository;
 
@@ -29,14 +45,45 @@ import project.newchat.userchatroom.repository.UserChatRoomRepository;
 @RequiredArgsConstructor
 public class ChatRoomServiceImpl implements ChatRoomService {
 
+  private static final int MAX_PAGE_SIZE = 100;
+
   private final ChatRoomRepository chatRoomRepository;
 
-  private final ChatMsgRepository chatMsgRepository;
+  private final ChatRoomCustomRepository chatRoomCustomRepository;
 
   private final UserRepository userRepository;
 
+  private final UserSummaryCache userSummaryCache;
+
   private final UserChatRoomRepository userChatRoomRepository;
 
+  private final RecentChatMsgBuffer recentChatMsgBuffer;
+
+  private final ChatMsgSearchIndex chatMsgSearchIndex;
+
+  private final RoomMembershipIndex roomMembershipIndex;
+
+  private final ChatMetrics chatMetrics;
+
+  private final RoomJoinLimiter roomJoinLimiter;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final ChatBroadcastBus chatBroadcastBus;
+
+  private final IdGenerator idGenerator;
+
+  private final RoomRouter roomRouter;
+
+  @Value("${chat.room.join-mode:ATOMIC}")
+  private RoomJoinMode joinMode;
+
+  // 다른 서버의 퇴장/방 삭제도 이 서버의 캐시에 반영
+  @PostConstruct
+  public void subscribeRoomEvents() {
+    chatBroadcastBus.subscribeEvents(this::applyRoomEvent);
+  }
+
   @Override
   @Transactional
   public void createRoom(ChatRoomRequest chatRoomRequest, Long userId) {
@@ -47,6 +94,7 @@ public class ChatRoomServiceImpl implements ChatRoomService {
         .roomCreator(findUser.getId())
         .title(chatRoomRequest.getTitle())
         .userCountMax(chatRoomRequest.getUserCountMax())
+        .currentUserCount(1L) // 방장 입장
         .createdAt(LocalDateTime.now())
         .updatedAt(LocalDateTime.now())
         .build();
@@ -59,25 +107,59 @@ public class ChatRoomServiceImpl implements ChatRoomService {
         .build();
     // save
     userChatRoomRepository.save(userChatRoom);
+    roomMembershipIndex.add(save.getId(), findUser.getId());
   }
 
   @Override
-  @Transactional
   public void joinRoom(Long roomId, Long userId) {
+    // 방별 동시 입장 수 제한, 락 대기 초과 시 시도마다 새 트랜잭션으로 재시도
+    roomJoinLimiter.execute(roomId, joinMode,
+        () -> transactionTemplate.executeWithoutResult(status -> join(roomId, userId)));
+  }
+
+  private void join(Long roomId, Long userId) {
     // 유저 조회
     User findUser = getFindUser(userId);
 
-    // room 조회
-    ChatRoom chatRoom = chatRoomRepository.findById(roomId)
+    if (joinMode == RoomJoinMode.PESSIMISTIC) {
+      joinRoomWithLock(roomId, findUser);
+      return;
+    }
+
+    // 인덱스에 없는데 이미 참여한 경우는 (user, room) 유니크 제약으로 걸러진다.
+    if (roomMembershipIndex.contains(roomId, userId)) {
+      throw new CustomException(ErrorCode.ALREADY_JOIN_ROOM);
+    }
+
+    // chatroom 입장 (정원 미만일 때만 인원 증가, 락 조회 없이 UPDATE 한 번)
+    if (increaseUserCount(roomId) == 0) {
+      chatRoomRepository.findChatRoomById(roomId)
+          .orElseThrow(() -> new CustomException(ErrorCode.NOT_FOUND_ROOM));
+      throw new CustomException(ErrorCode.ROOM_USER_FULL);
+    }
+
+    UserChatRoom userChatRoom = UserChatRoom.builder()
+        .user(findUser)
+        .chatRoom(chatRoomRepository.getReferenceById(roomId))
+        .build();
+    try {
+      userChatRoomRepository.saveAndFlush(userChatRoom);
+    } catch (DataIntegrityViolationException e) {
+      // 동시에 같은 유저가 입장한 경우 (user, room) 유니크 제약 위반 -> 인원 증가도 롤백
+      throw new CustomException(ErrorCode.ALREADY_JOIN_ROOM);
+    }
+    roomMembershipIndex.add(roomId, userId);
+  }
+
+  private void joinRoomWithLock(Long roomId, User findUser) {
+    // room 조회 (비관적 락)
+    ChatRoom chatRoom = findRoomWithLock(roomId)
         .orElseThrow(() -> new CustomException(ErrorCode.NOT_FOUND_ROOM));
 
     // user_chatroom 현재 인원 카운트
     Long currentUserCount = userChatRoomRepository.countByChatRoomId(roomId);
 
-    List<Long> userChatRoomByChatRoomId = userChatRoomRepository.findUserChatRoomByChatRoom_Id(
-        roomId);
-
-    if (userChatRoomByChatRoomId.contains(userId)) {
+    if (roomMembershipIndex.isMember(roomId, findUser.getId())) {
       throw new CustomException(ErrorCode.ALREADY_JOIN_ROOM);
     }
 
@@ -91,45 +173,92 @@ public class ChatRoomServiceImpl implements ChatRoomService {
         .chatRoom(chatRoom)
         .build();
     userChatRoomRepository.save(userChatRoom);
+    chatRoomRepository.increaseUserCount(roomId);
+    roomMembershipIndex.add(roomId, findUser.getId());
+  }
+
+  // 락 대기 시간은 row 락을 잡는 쿼리만 측정
+  private int increaseUserCount(Long roomId) {
+    long start = System.nanoTime();
+    try {
+      return chatRoomRepository.increaseUserCount(roomId);
+    } catch (PessimisticLockingFailureException e) {
+      chatMetrics.joinLockTimeout(RoomJoinMode.ATOMIC);
+      throw e;
+    } finally {
+      chatMetrics.joinLockWait(RoomJoinMode.ATOMIC, start);
+    }
+  }
 
+  private Optional<ChatRoom> findRoomWithLock(Long roomId) {
+    long start = System.nanoTime();
+    try {
+      return chatRoomRepository.findById(roomId);
+    } catch (PessimisticLockingFailureException e) {
+      chatMetrics.joinLockTimeout(RoomJoinMode.PESSIMISTIC);
+      throw e;
+    } finally {
+      chatMetrics.joinLockWait(RoomJoinMode.PESSIMISTIC, start);
+    }
   }
 
   // 채팅방 전체 조회
 
   @Override
-  @Transactional
-  public List<ChatRoomDto> getRoomList(Pageable pageable) {
-    Page<ChatRoom> all = chatRoomRepository.findAll(pageable);
-    return getChatRoomDtos(all);
+  @Transactional(readOnly = true)
+  public ChatRoomSliceDto getRoomList(Long cursor, int size) {
+    return ChatRoomSliceDto.of(chatRoomCustomRepository.findRoomSlice(cursor, limit(size)));
   }
   // 자신이 생성한 방 리스트 조회
 
   @Override
-  public List<ChatRoomDto> roomsByCreatorUser(Long userId, Pageable pageable) {
-    Page<ChatRoom> userCreateAll = chatRoomRepository.findAllByUserId(userId, pageable);
-    return getChatRoomDtos(userCreateAll);
+  @Transactional(readOnly = true)
+  public ChatRoomSliceDto roomsByCreatorUser(Long userId, Long cursor, int size) {
+    return ChatRoomSliceDto.of(
+        chatRoomCustomRepository.findRoomSliceByCreator(userId, cursor, limit(size)));
   }
   // 자신이 참여한 방 리스트 조회
 
   @Override
-  public List<ChatRoomDto> getUserByRoomPartList(Long userId, Pageable pageable) {
-    Page<ChatRoom> userPartAll = chatRoomRepository
-        .findAllByUserChatRoomsUserId(userId, pageable);
-    return getChatRoomDtos(userPartAll);
+  @Transactional(readOnly = true)
+  public ChatRoomSliceDto getUserByRoomPartList(Long userId, Long cursor, int size) {
+    return ChatRoomSliceDto.of(
+        chatRoomCustomRepository.findRoomSliceByMember(userId, cursor, limit(size)));
   }
+  // 방을 담당하는 서버의 WebSocket 주소 (핸드셰이크 리다이렉트를 따르지 않는 브라우저용)
+  @Override
+  public ChatRoomNodeDto getRoomNode(Long roomId, Long userId) {
+    if (!roomMembershipIndex.isMember(roomId, userId)) {
+      throw new CustomException(ErrorCode.NOT_ROOM_MEMBER);
+    }
+    String owner = roomRouter.ownerOf(roomId);
+    String path = WebSocketConfig.ROOM_PATH + roomId;
+    return new ChatRoomNodeDto(roomId, owner == null ? path : owner + path);
+  }
+
   @Override
   @Transactional
   public void outRoom(Long userId, Long roomId) {
     ChatRoom room = getChatRoom(roomId);
     // 방장이 아니라면
     if (!Objects.equals(room.getRoomCreator(), userId)) {
-      userChatRoomRepository.deleteUserChatRoomByUserId(userId);
+      // 이 방의 참여 정보만 삭제, 실제로 삭제된 경우에만 인원 감소
+      if (userChatRoomRepository.deleteByUserIdAndChatRoomId(userId, roomId) == 0) {
+        throw new CustomException(ErrorCode.NOT_ROOM_MEMBER);
+      }
+      chatRoomRepository.decreaseUserCount(roomId);
+      roomMembershipIndex.remove(roomId, userId);
+      // 모든 서버에서 이 유저의 방 세션을 종료 (커밋 후)
+      afterCommit(() -> chatBroadcastBus.publish(ChatEnvelope.builder()
+          .messageId(idGenerator.nextId())
+          .roomId(roomId)
+          .senderId(userId)
+          .type(ChatEnvelopeType.LEAVE)
+          .build()));
       return;
     }
     // 방장이라면 방 삭제
-    chatMsgRepository.deleteChatMsgByChatRoom_Id(roomId);
-    userChatRoomRepository.deleteUserChatRoomByChatRoom_Id(roomId);
-    chatRoomRepository.deleteById(roomId);
+    markDeleted(roomId);
   }
 
   @Override
@@ -139,15 +268,44 @@ public class ChatRoomServiceImpl implements ChatRoomService {
     if (!Objects.equals(room.getRoomCreator(), userId)) {
       throw new CustomException(ErrorCode.NOT_ROOM_CREATOR);
     }
-    chatMsgRepository.deleteChatMsgByChatRoom_Id(roomId);
-    userChatRoomRepository.deleteUserChatRoomByChatRoom_Id(roomId);
-    chatRoomRepository.deleteById(roomId);
+    markDeleted(roomId);
   }
 
+  // 삭제 표시 후 바로 반환, 메시지/참여 정보는 ChatRoomPurger 가 나눠서 삭제
+  private void markDeleted(Long roomId) {
+    chatRoomRepository.markDeleted(roomId);
+    recentChatMsgBuffer.evict(roomId);
+    roomMembershipIndex.removeRoom(roomId);
+    afterCommit(() -> chatMsgSearchIndex.removeRoom(roomId));
+    // 모든 서버에서 방 캐시를 지우고 방 세션을 종료 (커밋 후)
+    afterCommit(() -> chatBroadcastBus.publish(ChatEnvelope.builder()
+        .messageId(idGenerator.nextId())
+        .roomId(roomId)
+        .type(ChatEnvelopeType.ROOM_DELETED)
+        .build()));
+  }
+
+  // 이 서버에서 발행한 이벤트는 이미 반영했으므로 다시 적용해도 결과가 같다.
+  private void applyRoomEvent(ChatEnvelope envelope) {
+    Long roomId = envelope.getRoomId();
+    if (envelope.getType() == ChatEnvelopeType.LEAVE) {
+      roomMembershipIndex.remove(roomId, envelope.getSenderId());
+    } else if (envelope.getType() == ChatEnvelopeType.ROOM_DELETED) {
+      recentChatMsgBuffer.evict(roomId);
+      roomMembershipIndex.removeRoom(roomId);
+      chatMsgSearchIndex.removeRoom(roomId);
+    }
+  }
+
+  // 페이지 크기 제한 (1 ~ MAX_PAGE_SIZE)
+  private static int limit(int size) {
+    return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+  }
+
+  // 존재 확인은 캐시로, 연관관계에는 SELECT 없는 프록시 참조만 사용
   private User getFindUser(Long userId) {
-    User findUser = userRepository.findById(userId)
-        .orElseThrow(() -> new CustomException(ErrorCode.NOT_FOUND_USER));
-    return findUser;
+    UserSummary findUser = userSummaryCache.get(userId);
+    return userRepository.getReferenceById(findUser.getId());
   }
 
   private ChatRoom getChatRoom(Long roomId) {
@@ -156,11 +314,4 @@ public class ChatRoomServiceImpl implements ChatRoomService {
         .orElseThrow(() -> new CustomException(ErrorCode.NONE_ROOM));
     return room;
   }
-
-  // 방 조회 DTO 변환 메서드 추출
-  private static List<ChatRoomDto> getChatRoomDtos(Page<ChatRoom> all) {
-    return all.stream()
-        .map(ChatRoomDto::of)
-        .collect(Collectors.toList());
-  }
 }
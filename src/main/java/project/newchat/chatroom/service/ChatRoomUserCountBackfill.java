@@ -0,0 +1,44 @@
+package project.newchat.chatroom.service;
+
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * current_user_count 컬럼이 추가되기 전에 만들어진 방의 현재 인원 채우기.
+ * 컬럼 기본값 0 으로 생성된 방은 인원 제한(조건부 UPDATE)이 실제 참여자 수만큼 더 받게 되므로 기동 시 맞춘다.
+ * 참여자가 있는데 0 인 방만 대상이라(입장/퇴장은 인원과 참여 정보를 한 트랜잭션에서 바꿈) 한 번 채운 뒤에는 아무것도 하지 않는다.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory") // 스키마 생성/갱신 이후 실행
+public class ChatRoomUserCountBackfill {
+
+  private static final String BACKFILL =
+      "update chat_room c set current_user_count = "
+          + "(select count(*) from user_chat_room u where u.chat_room_id = c.chat_room_id) "
+          + "where c.current_user_count = 0 "
+          + "and exists (select 1 from user_chat_room u where u.chat_room_id = c.chat_room_id)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ChatRoomUserCountBackfill(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @PostConstruct
+  public void start() {
+    backfill();
+  }
+
+  // 채운 방 수를 반환
+  public int backfill() {
+    int updated = jdbcTemplate.update(BACKFILL);
+    if (updated > 0) {
+      log.info("채팅방 현재 인원 채우기 완료 rooms={}", updated);
+    }
+    return updated;
+  }
+}
@@ -0,0 +1,144 @@
+package project.newchat.chatroom.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import project.newchat.common.exception.CustomException;
+import project.newchat.common.metrics.ChatMetrics;
+import project.newchat.common.type.ErrorCode;
+import project.newchat.common.type.RoomJoinMode;
+
+/**
+ * 채팅방 입장 동시성 제한 + 락 대기 초과 시 재시도.
+ * 같은 방에 동시에 입장 트랜잭션을 여는 요청을 max-concurrency 개로 제한하고(공정 세마포어, 도착 순서대로 대기),
+ * 방 row 락 대기 초과/데드락은 지터를 준 지수 백오프로 max-attempts 번까지 다시 시도한다.
+ * 끝내 처리하지 못하면 ROOM_JOIN_BUSY (정원 초과 ROOM_USER_FULL 과 구분)
+ */
+@Slf4j
+@Component
+public class RoomJoinLimiter {
+
+  private final ChatMetrics chatMetrics;
+
+  private final int maxConcurrency;
+
+  private final long queueTimeoutMs;
+
+  private final int maxAttempts;
+
+  private final long backoffBaseMs;
+
+  private final long backoffMaxMs;
+
+  // 대기/실행 중인 요청이 있는 방만 보관 (마지막 요청이 끝나면 제거)
+  private final Map<Long, RoomPermits> rooms = new ConcurrentHashMap<>();
+
+  public RoomJoinLimiter(
+      ChatMetrics chatMetrics,
+      @Value("${chat.room.join.max-concurrency:4}") int maxConcurrency,
+      @Value("${chat.room.join.queue-timeout-ms:3000}") long queueTimeoutMs,
+      @Value("${chat.room.join.max-attempts:3}") int maxAttempts,
+      @Value("${chat.room.join.backoff-base-ms:20}") long backoffBaseMs,
+      @Value("${chat.room.join.backoff-max-ms:200}") long backoffMaxMs) {
+    this.chatMetrics = chatMetrics;
+    this.maxConcurrency = maxConcurrency;
+    this.queueTimeoutMs = queueTimeoutMs;
+    this.maxAttempts = maxAttempts;
+    this.backoffBaseMs = backoffBaseMs;
+    this.backoffMaxMs = backoffMaxMs;
+  }
+
+  /**
+   * @param attempt 입장 처리 한 번 (자체 트랜잭션으로 실행되어야 재시도할 수 있다)
+   */
+  public void execute(Long roomId, RoomJoinMode mode, Runnable attempt) {
+    // 바깥 트랜잭션에 참여한 경우 락 실패 시 이미 rollback-only 이므로 재시도하지 않는다.
+    int attempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : maxAttempts;
+    RoomPermits permits = acquire(roomId);
+    try {
+      for (int i = 1; ; i++) {
+        try {
+          attempt.run();
+          return;
+        } catch (PessimisticLockingFailureException e) {
+          if (i >= attempts) {
+            log.warn("채팅방 입장 락 획득 실패 roomId={}, attempts={}", roomId, i);
+            chatMetrics.joinBusy();
+            throw new CustomException(ErrorCode.ROOM_JOIN_BUSY);
+          }
+          chatMetrics.joinRetry(mode);
+          backoff(i);
+        }
+      }
+    } finally {
+      release(roomId, permits);
+    }
+  }
+
+  private RoomPermits acquire(Long roomId) {
+    RoomPermits permits = rooms.compute(roomId, (id, current) -> {
+      RoomPermits room = current == null ? new RoomPermits(maxConcurrency) : current;
+      room.users++;
+      return room;
+    });
+    long start = System.nanoTime();
+    boolean acquired;
+    try {
+      acquired = permits.semaphore.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    chatMetrics.joinQueueWait(start);
+    if (!acquired) {
+      leave(roomId);
+      chatMetrics.joinBusy();
+      throw new CustomException(ErrorCode.ROOM_JOIN_BUSY);
+    }
+    return permits;
+  }
+
+  private void release(Long roomId, RoomPermits permits) {
+    permits.semaphore.release();
+    leave(roomId);
+  }
+
+  private void leave(Long roomId) {
+    rooms.computeIfPresent(roomId, (id, room) -> --room.users == 0 ? null : room);
+  }
+
+  // full jitter: 0 ~ min(max, base * 2^(attempt-1))
+  private void backoff(int attempt) {
+    long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 20));
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      chatMetrics.joinBusy();
+      throw new CustomException(ErrorCode.ROOM_JOIN_BUSY);
+    }
+  }
+
+  int activeRooms() {
+    return rooms.size();
+  }
+
+  private static class RoomPermits {
+
+    private final Semaphore semaphore;
+
+    // compute 안에서만 변경
+    private int users;
+
+    RoomPermits(int permits) {
+      this.semaphore = new Semaphore(permits, true);
+    }
+  }
+}
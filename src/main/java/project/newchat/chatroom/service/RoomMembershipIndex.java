@@ -0,0 +1,129 @@
+package project.newchat.chatroom.service;
+
+import static project.newchat.common.util.TransactionUtils.afterCommit;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import project.newchat.common.util.LongHashSet;
+import project.newchat.userchatroom.repository.UserChatRoomRepository;
+
+/**
+ * 채팅방별 참여자 인덱스 (방 ID -> 참여 유저 ID 셋).
+ * 방 단위로 처음 조회할 때 한 번 적재하고, 입장/퇴장/삭제는 커밋 후에 반영한다.
+ * 인덱스에 있으면 바로 참여자로 판단하고, 없으면 다른 서버에서 입장했을 수 있으니 DB 로 한 번 더 확인한다.
+ * 오래 사용되지 않은 방은 LRU 로 제거해서 max-rooms 개까지만 보관한다.
+ */
+@Component
+public class RoomMembershipIndex {
+
+  private final UserChatRoomRepository userChatRoomRepository;
+
+  private final Map<Long, LongHashSet> rooms;
+
+  // 퇴장/삭제 횟수, 적재 중에 퇴장이 일어나면 적재 결과를 버리기 위해 사용
+  private final AtomicLong removals = new AtomicLong();
+
+  public RoomMembershipIndex(
+      UserChatRoomRepository userChatRoomRepository,
+      @Value("${chat.room.membership.max-rooms:10000}") int maxRooms) {
+    this.userChatRoomRepository = userChatRoomRepository;
+    // accessOrder = true -> 가장 오래 사용되지 않은 방부터 제거
+    this.rooms = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, LongHashSet> eldest) {
+        return size() > maxRooms;
+      }
+    });
+  }
+
+  /**
+   * 참여 여부. 인덱스에 없으면 DB 로 확인하고 참여자라면 인덱스에 추가한다.
+   */
+  public boolean isMember(Long roomId, Long userId) {
+    if (contains(roomId, userId)) {
+      return true;
+    }
+    if (!userChatRoomRepository.existsByUserIdAndChatRoomId(userId, roomId)) {
+      return false;
+    }
+    addNow(roomId, userId);
+    return true;
+  }
+
+  /**
+   * 인덱스만으로 판단한 참여 여부 (DB 확인 없음, 없다는 결과는 확정이 아님)
+   */
+  public boolean contains(Long roomId, Long userId) {
+    LongHashSet members = members(roomId);
+    synchronized (members) {
+      return members.contains(userId);
+    }
+  }
+
+  // 입장 (트랜잭션 안이면 커밋 후 반영)
+  public void add(Long roomId, Long userId) {
+    afterCommit(() -> addNow(roomId, userId));
+  }
+
+  // 퇴장
+  public void remove(Long roomId, Long userId) {
+    afterCommit(() -> {
+      removals.incrementAndGet();
+      LongHashSet members = rooms.get(roomId);
+      if (members != null) {
+        synchronized (members) {
+          members.remove(userId);
+        }
+      }
+    });
+  }
+
+  // 방 삭제
+  public void removeRoom(Long roomId) {
+    afterCommit(() -> {
+      removals.incrementAndGet();
+      rooms.remove(roomId);
+    });
+  }
+
+  private void addNow(Long roomId, Long userId) {
+    LongHashSet members = rooms.get(roomId);
+    // 아직 적재되지 않은 방은 다음 조회 때 DB 에서 함께 읽힌다.
+    if (members != null) {
+      synchronized (members) {
+        members.add(userId);
+      }
+    }
+  }
+
+  private LongHashSet members(Long roomId) {
+    LongHashSet members = rooms.get(roomId);
+    if (members != null) {
+      return members;
+    }
+    // DB 조회는 락 밖에서, 먼저 적재된 셋이 있으면 그 셋을 사용
+    long removalsBefore = removals.get();
+    List<Long> userIds = userChatRoomRepository.findUserChatRoomByChatRoom_Id(roomId);
+    LongHashSet loaded = new LongHashSet(userIds.size());
+    for (Long userId : userIds) {
+      loaded.add(userId);
+    }
+    if (removals.get() != removalsBefore) {
+      // 적재 중에 퇴장이 있었으면 퇴장한 유저가 남아 있을 수 있으므로 캐시하지 않는다.
+      return loaded;
+    }
+    LongHashSet current = rooms.putIfAbsent(roomId, loaded);
+    if (current != null) {
+      return current;
+    }
+    if (removals.get() != removalsBefore) {
+      rooms.remove(roomId, loaded);
+    }
+    return loaded;
+  }
+}
@@ -0,0 +1,23 @@
+package project.newchat.common.broadcast;
+
+import java.util.function.Consumer;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+
+/**
+ * 채팅방 메시지 브로드캐스트 버스.
+ * 메시지를 보낸 서버와 관계없이 해당 방을 구독 중인 모든 서버에 메시지를 전달한다.
+ */
+public interface ChatBroadcastBus {
+
+  // 방에 메시지 발행
+  void publish(ChatEnvelope envelope);
+
+  // 이 서버에 방의 수신자가 생겼을 때 구독 (방마다 여러 listener 가능)
+  void subscribe(Long roomId, Consumer<ChatEnvelope> listener);
+
+  // 이 서버에 방의 수신자가 모두 나갔을 때 구독 해제 (subscribe 때와 같은 listener 인스턴스)
+  void unsubscribe(Long roomId, Consumer<ChatEnvelope> listener);
+
+  // 방 구독과 관계없이 모든 방의 이벤트(MESSAGE 외 타입)를 받는 서버 단위 listener
+  void subscribeEvents(Consumer<ChatEnvelope> listener);
+}
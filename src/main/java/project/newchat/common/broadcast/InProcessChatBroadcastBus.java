@@ -0,0 +1,32 @@
+package project.newchat.common.broadcast;
+
+import java.util.function.Consumer;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+
+/**
+ * 단일 서버용 브로드캐스트 버스. 발행한 스레드에서 바로 이 서버의 구독자에게 전달한다.
+ */
+public class InProcessChatBroadcastBus implements ChatBroadcastBus {
+
+  private final RoomListeners listeners = new RoomListeners();
+
+  @Override
+  public void publish(ChatEnvelope envelope) {
+    listeners.deliver(envelope);
+  }
+
+  @Override
+  public void subscribe(Long roomId, Consumer<ChatEnvelope> listener) {
+    listeners.add(roomId, listener);
+  }
+
+  @Override
+  public void unsubscribe(Long roomId, Consumer<ChatEnvelope> listener) {
+    listeners.remove(roomId, listener);
+  }
+
+  @Override
+  public void subscribeEvents(Consumer<ChatEnvelope> listener) {
+    listeners.addEvents(listener);
+  }
+}
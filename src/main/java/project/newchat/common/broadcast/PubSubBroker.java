@@ -0,0 +1,17 @@
+package project.newchat.common.broadcast;
+
+import java.util.function.Consumer;
+
+/**
+ * 서버 간 메시지를 중계하는 pub/sub 브로커 (Redis pub/sub 등).
+ * 이 타입의 빈이 있으면 PubSubChatBroadcastBus 가 사용된다.
+ */
+public interface PubSubBroker {
+
+  void publish(String channel, byte[] payload);
+
+  // 채널당 listener 하나, 같은 채널을 다시 구독하면 listener 를 교체
+  void subscribe(String channel, Consumer<byte[]> listener);
+
+  void unsubscribe(String channel);
+}
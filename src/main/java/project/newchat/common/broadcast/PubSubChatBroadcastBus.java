@@ -0,0 +1,197 @@
+package project.newchat.common.broadcast;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+import project.newchat.common.type.ChatEnvelopeType;
+
+/**
+ * pub/sub 브로커를 통한 서버 간 브로드캐스트 버스.
+ * 이 서버의 구독자에게는 바로 전달하고, 다른 서버로는 방 단위 채널(chat.room.{roomId})에
+ * batch-size 개 또는 batch-interval 마다 묶어서 발행한다.
+ * 방에 세션이 있는 서버만 그 방 채널을 구독하며, 자기 서버가 발행한 배치와 이미 받은 메시지 ID는 무시한다.
+ * 퇴장/방 삭제 같은 이벤트는 모든 서버가 캐시를 고쳐야 하므로 모든 서버가 구독하는 이벤트 채널(chat.room.events)로 보낸다.
+ */
+@Slf4j
+public class PubSubChatBroadcastBus implements ChatBroadcastBus {
+
+  static final String CHANNEL_PREFIX = "chat.room.";
+
+  static final String EVENT_CHANNEL = "chat.room.events";
+
+  private final PubSubBroker broker;
+
+  private final ObjectMapper objectMapper;
+
+  // 이 서버에서 발행한 배치를 구분하기 위한 ID
+  private final String nodeId = UUID.randomUUID().toString();
+
+  private final RoomListeners listeners = new RoomListeners();
+
+  private final RecentIdFilter recentIds;
+
+  private final BlockingQueue<ChatEnvelope> outbound;
+
+  private final int batchSize;
+
+  private final long batchIntervalMs;
+
+  private volatile boolean running = true;
+
+  private Thread publisher;
+
+  public PubSubChatBroadcastBus(PubSubBroker broker, ObjectMapper objectMapper,
+      int capacity, int batchSize, long batchIntervalMs, int dedupCapacity) {
+    this.broker = broker;
+    this.objectMapper = objectMapper;
+    this.outbound = new ArrayBlockingQueue<>(capacity);
+    this.batchSize = batchSize;
+    this.batchIntervalMs = batchIntervalMs;
+    this.recentIds = new RecentIdFilter(dedupCapacity);
+  }
+
+  @PostConstruct
+  public void start() {
+    broker.subscribe(EVENT_CHANNEL, this::receive);
+    publisher = new Thread(this::runPublisher, "chat-broadcast-publisher");
+    publisher.setDaemon(true);
+    publisher.start();
+  }
+
+  @Override
+  public void publish(ChatEnvelope envelope) {
+    // 이 서버의 세션에는 브로커를 거치지 않고 바로 전달
+    deliver(envelope);
+    // 큐가 가득 차면 버리지 않고 호출 스레드에서 바로 발행
+    if (!outbound.offer(envelope)) {
+      log.warn("브로드캐스트 발행 큐가 가득 차서 바로 발행합니다. messageId={}",
+          envelope.getMessageId());
+      send(List.of(envelope));
+    }
+  }
+
+  @Override
+  public void subscribe(Long roomId, Consumer<ChatEnvelope> listener) {
+    // 방 채널은 이 서버의 첫 listener 가 생길 때만 구독
+    listeners.add(roomId, listener, () -> broker.subscribe(channel(roomId), this::receive));
+  }
+
+  @Override
+  public void unsubscribe(Long roomId, Consumer<ChatEnvelope> listener) {
+    listeners.remove(roomId, listener, () -> broker.unsubscribe(channel(roomId)));
+  }
+
+  @Override
+  public void subscribeEvents(Consumer<ChatEnvelope> listener) {
+    listeners.addEvents(listener);
+  }
+
+  private void receive(byte[] payload) {
+    Batch batch;
+    try {
+      batch = objectMapper.readValue(payload, Batch.class);
+    } catch (IOException e) {
+      log.error("브로드캐스트 메시지 역직렬화 실패", e);
+      return;
+    }
+    if (nodeId.equals(batch.getNodeId())) {
+      return; // 이 서버가 발행한 배치 (이미 바로 전달함)
+    }
+    for (ChatEnvelope envelope : batch.getEnvelopes()) {
+      deliver(envelope);
+    }
+  }
+
+  private void deliver(ChatEnvelope envelope) {
+    // 브로커 재전송 등으로 같은 메시지를 두 번 받으면 무시
+    if (envelope.getMessageId() != null && !recentIds.firstSeen(envelope.getMessageId())) {
+      return;
+    }
+    listeners.deliver(envelope);
+  }
+
+  private void runPublisher() {
+    List<ChatEnvelope> batch = new ArrayList<>(batchSize);
+    while (running) {
+      try {
+        ChatEnvelope first = outbound.poll(batchIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        outbound.drainTo(batch, batchSize - 1);
+        send(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        log.error("브로드캐스트 발행 스레드 오류", e);
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  // 종료 시 남은 메시지를 모두 발행
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    running = false;
+    if (publisher != null) {
+      publisher.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    List<ChatEnvelope> batch = new ArrayList<>(batchSize);
+    while (outbound.drainTo(batch, batchSize) > 0) {
+      send(batch);
+      batch.clear();
+    }
+  }
+
+  // 채널(방 또는 이벤트)별로 묶어서 채널당 한 번 발행
+  private void send(List<ChatEnvelope> envelopes) {
+    Map<String, List<ChatEnvelope>> byChannel = new LinkedHashMap<>();
+    for (ChatEnvelope envelope : envelopes) {
+      byChannel.computeIfAbsent(channel(envelope), c -> new ArrayList<>()).add(envelope);
+    }
+    byChannel.forEach((channel, channelEnvelopes) -> {
+      try {
+        broker.publish(channel,
+            objectMapper.writeValueAsBytes(new Batch(nodeId, channelEnvelopes)));
+      } catch (IOException | RuntimeException e) {
+        log.error("브로드캐스트 발행 실패 channel={}, size={}", channel, channelEnvelopes.size(), e);
+      }
+    });
+  }
+
+  private static String channel(ChatEnvelope envelope) {
+    return envelope.getType() == ChatEnvelopeType.MESSAGE
+        ? channel(envelope.getRoomId())
+        : EVENT_CHANNEL;
+  }
+
+  private static String channel(Long roomId) {
+    return CHANNEL_PREFIX + roomId;
+  }
+
+  @Getter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Batch {
+    private String nodeId;
+    private List<ChatEnvelope> envelopes;
+  }
+}
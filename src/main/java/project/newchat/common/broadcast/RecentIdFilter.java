@@ -0,0 +1,38 @@
+package project.newchat.common.broadcast;
+
+import project.newchat.common.util.LongHashSet;
+
+/**
+ * 최근 capacity 개의 메시지 ID 를 기억해서 중복 수신을 걸러낸다.
+ * 가장 오래된 ID 부터 잊는다 (원형 배열 + 해시 셋).
+ */
+class RecentIdFilter {
+
+  private final long[] ring;
+
+  private final LongHashSet seen;
+
+  private int next;
+
+  private int size;
+
+  RecentIdFilter(int capacity) {
+    this.ring = new long[capacity];
+    this.seen = new LongHashSet(capacity);
+  }
+
+  // 처음 보는 ID 면 true
+  synchronized boolean firstSeen(long id) {
+    if (!seen.add(id)) {
+      return false;
+    }
+    if (size == ring.length) {
+      seen.remove(ring[next]);
+    } else {
+      size++;
+    }
+    ring[next] = id;
+    next = (next + 1) % ring.length;
+    return true;
+  }
+}
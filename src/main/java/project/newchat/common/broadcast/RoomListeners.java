@@ -0,0 +1,97 @@
+package project.newchat.common.broadcast;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+import project.newchat.common.type.ChatEnvelopeType;
+
+/**
+ * 방별 버스 listener 목록 (WebSocket 핸들러, SSE 등 방마다 여러 수신 경로).
+ * 첫 listener / 마지막 listener 콜백(브로커 구독/해제)은 방마다 두는 락 안에서 실행하고
+ * 방 map 의 compute 안에서는 실행하지 않는다. (느린 브로커가 다른 방의 입장/퇴장을 막지 않도록)
+ */
+class RoomListeners {
+
+  private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+
+  // 모든 방의 이벤트를 받는 listener
+  private final List<Consumer<ChatEnvelope>> events = new CopyOnWriteArrayList<>();
+
+  /**
+   * @param onFirst 방의 첫 listener 일 때 실행 (방 단위로 onLast 와 순서가 보장된다)
+   */
+  void add(Long roomId, Consumer<ChatEnvelope> listener, Runnable onFirst) {
+    while (true) {
+      Room room = rooms.computeIfAbsent(roomId, id -> new Room());
+      synchronized (room) {
+        if (room.closed) {
+          continue; // 마지막 listener 가 빠져서 닫힌 방 -> 새로 만든다.
+        }
+        if (room.listeners.isEmpty()) {
+          onFirst.run();
+        }
+        room.listeners.add(listener);
+        return;
+      }
+    }
+  }
+
+  void add(Long roomId, Consumer<ChatEnvelope> listener) {
+    add(roomId, listener, () -> { });
+  }
+
+  /**
+   * @param onLast 방의 마지막 listener 가 빠졌을 때 실행
+   */
+  void remove(Long roomId, Consumer<ChatEnvelope> listener, Runnable onLast) {
+    Room room = rooms.get(roomId);
+    if (room == null) {
+      return;
+    }
+    synchronized (room) {
+      if (!room.listeners.remove(listener) || !room.listeners.isEmpty()) {
+        return;
+      }
+      // 해제가 끝날 때까지 map 에 남겨 두어서, 그동안 들어온 add 가 해제 뒤에 다시 구독하게 한다.
+      room.closed = true;
+      try {
+        onLast.run();
+      } finally {
+        rooms.remove(roomId, room);
+      }
+    }
+  }
+
+  void remove(Long roomId, Consumer<ChatEnvelope> listener) {
+    remove(roomId, listener, () -> { });
+  }
+
+  void addEvents(Consumer<ChatEnvelope> listener) {
+    events.add(listener);
+  }
+
+  void deliver(ChatEnvelope envelope) {
+    if (envelope.getType() != ChatEnvelopeType.MESSAGE) {
+      events.forEach(listener -> listener.accept(envelope));
+    }
+    Room room = rooms.get(envelope.getRoomId());
+    if (room != null) {
+      room.listeners.forEach(listener -> listener.accept(envelope));
+    }
+  }
+
+  /**
+   * 방 하나의 listener. listener 수가 참조 수이고, 추가/제거는 이 객체로 동기화한다.
+   */
+  private static class Room {
+
+    private final Set<Consumer<ChatEnvelope>> listeners = new CopyOnWriteArraySet<>();
+
+    private boolean closed;
+  }
+}
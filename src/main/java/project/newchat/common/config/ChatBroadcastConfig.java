@@ -0,0 +1,32 @@
+package project.newchat.common.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import project.newchat.common.broadcast.ChatBroadcastBus;
+import project.newchat.common.broadcast.InProcessChatBroadcastBus;
+import project.newchat.common.broadcast.PubSubBroker;
+import project.newchat.common.broadcast.PubSubChatBroadcastBus;
+
+@Configuration
+public class ChatBroadcastConfig {
+
+  // PubSubBroker 빈이 있으면 서버 간 브로드캐스트, 없으면 단일 서버 브로드캐스트
+  @Bean
+  public ChatBroadcastBus chatBroadcastBus(
+      ObjectProvider<PubSubBroker> broker,
+      ObjectMapper objectMapper,
+      @Value("${chat.broadcast.capacity:10000}") int capacity,
+      @Value("${chat.broadcast.batch-size:100}") int batchSize,
+      @Value("${chat.broadcast.batch-interval-ms:5}") long batchIntervalMs,
+      @Value("${chat.broadcast.dedup-capacity:10000}") int dedupCapacity) {
+    PubSubBroker pubSubBroker = broker.getIfAvailable();
+    if (pubSubBroker == null) {
+      return new InProcessChatBroadcastBus();
+    }
+    return new PubSubChatBroadcastBus(pubSubBroker, objectMapper,
+        capacity, batchSize, batchIntervalMs, dedupCapacity);
+  }
+}
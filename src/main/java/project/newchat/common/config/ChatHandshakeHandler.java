@@ -0,0 +1,92 @@
+package project.newchat.common.config;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.Lifecycle;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.server.HandshakeHandler;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+/**
+ * 채팅 WebSocket 핸드셰이크.
+ * 서브프로토콜은 핸들러(SubProtocolCapable)가 지원하는 것 중 클라이언트가 요청한 것으로 정해진다.
+ * permessage-deflate 는 클라이언트가 요청하면 컨테이너(Tomcat)가 수락하고 압축/해제까지 처리한다.
+ * 연결마다 deflate 상태(메모리/CPU)를 가지므로 chat.ws.permessage-deflate.enabled=false 면 확장 요청을 숨겨서 거절한다.
+ * (Tomcat 은 Spring 이 고른 확장과 무관하게 요청 헤더로 다시 협상하므로 헤더를 숨겨야 한다)
+ */
+@Component
+public class ChatHandshakeHandler implements HandshakeHandler, Lifecycle {
+
+  private final DefaultHandshakeHandler delegate = new DefaultHandshakeHandler();
+
+  private final boolean permessageDeflate;
+
+  public ChatHandshakeHandler(
+      @Value("${chat.ws.permessage-deflate.enabled:true}") boolean permessageDeflate) {
+    this.permessageDeflate = permessageDeflate;
+  }
+
+  @Override
+  public boolean doHandshake(ServerHttpRequest request, ServerHttpResponse response,
+      WebSocketHandler wsHandler, Map<String, Object> attributes) {
+    if (!permessageDeflate && request instanceof ServletServerHttpRequest) {
+      request = new ServletServerHttpRequest(
+          new WithoutExtensions(((ServletServerHttpRequest) request).getServletRequest()));
+    }
+    return delegate.doHandshake(request, response, wsHandler, attributes);
+  }
+
+  @Override
+  public void start() {
+    delegate.start();
+  }
+
+  @Override
+  public void stop() {
+    delegate.stop();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return delegate.isRunning();
+  }
+
+  // Sec-WebSocket-Extensions 헤더를 보내지 않은 요청처럼 보이게 한다.
+  private static class WithoutExtensions extends HttpServletRequestWrapper {
+
+    WithoutExtensions(HttpServletRequest request) {
+      super(request);
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return isExtensions(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+      return isExtensions(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+      return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+          .filter(name -> !isExtensions(name))
+          .collect(Collectors.toList()));
+    }
+
+    private static boolean isExtensions(String name) {
+      return WebSocketHttpHeaders.SEC_WEBSOCKET_EXTENSIONS.equalsIgnoreCase(name);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package project.newchat.common.config;
+
+import java.net.URI;
+import java.util.Map;
+import javax.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+import project.newchat.chatroom.service.RoomMembershipIndex;
+import project.newchat.common.routing.RoomRouter;
+
+/**
+ * WebSocket 핸드셰이크 시 로그인 유저와 채팅방을 한 번만 확인해서 세션 속성으로 저장한다.
+ * 방 ID는 /ws/chat/{roomId} 경로 또는 /chat?roomId={roomId} 로 받으며,
+ * 로그인하지 않았거나 방 참여자가 아니면 업그레이드 전에 거절한다.
+ * 다른 서버가 담당하는 방이면 담당 서버 주소로 리다이렉트(307)한다.
+ * 브라우저 WebSocket 은 핸드셰이크 리다이렉트를 따르지 않고 Location 도 볼 수 없으므로,
+ * 브라우저 클라이언트는 GET /chat/room/{roomId}/node 로 담당 서버 주소를 먼저 조회해서 접속한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatHandshakeInterceptor implements HandshakeInterceptor {
+
+  public static final String USER_ID = "chat.userId";
+
+  public static final String ROOM_ID = "chat.roomId";
+
+  private final RoomMembershipIndex roomMembershipIndex;
+
+  private final RoomRouter roomRouter;
+
+  @Override
+  public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+      WebSocketHandler wsHandler, Map<String, Object> attributes) {
+    Long userId = extractUserId(request);
+    if (userId == null) {
+      response.setStatusCode(HttpStatus.UNAUTHORIZED);
+      return false;
+    }
+    Long roomId = extractRoomId(request);
+    if (roomId == null) {
+      response.setStatusCode(HttpStatus.BAD_REQUEST);
+      return false;
+    }
+    if (!roomRouter.isLocal(roomId)) {
+      // 같은 방 세션을 담당 서버로 모아서 브로드캐스트가 서버 안에서 끝나도록
+      response.setStatusCode(HttpStatus.TEMPORARY_REDIRECT);
+      response.getHeaders().setLocation(ownerUri(roomRouter.ownerOf(roomId), request));
+      return false;
+    }
+    if (!roomMembershipIndex.isMember(roomId, userId)) {
+      log.info("채팅방 참여자가 아닌 유저의 접속 거절 userId={}, roomId={}", userId, roomId);
+      response.setStatusCode(HttpStatus.FORBIDDEN);
+      return false;
+    }
+    attributes.put(USER_ID, userId);
+    attributes.put(ROOM_ID, roomId);
+    return true;
+  }
+
+  @Override
+  public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+      WebSocketHandler wsHandler, Exception exception) {
+  }
+
+  // 담당 서버 주소 + 요청 경로/쿼리
+  private static URI ownerUri(String owner, ServerHttpRequest request) {
+    return UriComponentsBuilder.fromUriString(owner)
+        .path(request.getURI().getRawPath())
+        .query(request.getURI().getRawQuery())
+        .build(true)
+        .toUri();
+  }
+
+  // 로그인 시 HttpSession 에 저장한 유저 ID
+  private static Long extractUserId(ServerHttpRequest request) {
+    if (!(request instanceof ServletServerHttpRequest)) {
+      return null;
+    }
+    HttpSession session = ((ServletServerHttpRequest) request).getServletRequest()
+        .getSession(false);
+    if (session == null) {
+      return null;
+    }
+    Object user = session.getAttribute("user");
+    return user instanceof Long ? (Long) user : null;
+  }
+
+  private static Long extractRoomId(ServerHttpRequest request) {
+    String path = request.getURI().getPath();
+    String roomId = path.startsWith(WebSocketConfig.ROOM_PATH)
+        ? path.substring(WebSocketConfig.ROOM_PATH.length())
+        : UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams()
+            .getFirst("roomId");
+    if (roomId == null) {
+      return null;
+    }
+    try {
+      return Long.valueOf(roomId);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
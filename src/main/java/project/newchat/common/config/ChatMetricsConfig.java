@@ -0,0 +1,38 @@
+package project.newchat.common.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import project.newchat.common.handler.ChatSessionRegistry;
+import project.newchat.user.service.UserSummaryCache;
+
+// 상태값 지표 (수집 시점에 현재 값을 읽는 gauge)
+// ChatMetrics 를 주입받는 빈은 MeterBinder 로 등록하면 순환 참조가 생기므로 ChatMetrics.gauge 로 직접 등록한다.
+@Configuration
+public class ChatMetricsConfig {
+
+  @Bean
+  public MeterBinder chatSessionMetrics(ChatSessionRegistry chatSessionRegistry) {
+    return registry -> {
+      Gauge.builder("chat.ws.sessions", chatSessionRegistry, ChatSessionRegistry::sessionCount)
+          .description("이 서버에 연결된 WebSocket 세션 수")
+          .register(registry);
+      Gauge.builder("chat.ws.rooms", chatSessionRegistry, ChatSessionRegistry::roomCount)
+          .description("이 서버에 세션이 있는 채팅방 수")
+          .register(registry);
+      Gauge.builder("chat.ws.outbound.buffered", chatSessionRegistry,
+              sessions -> sessions.outboundBufferSizes().values().stream()
+                  .mapToLong(Integer::longValue).sum())
+          .description("세션 송신 큐에 쌓인 전체 바이트 수")
+          .baseUnit("bytes")
+          .register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder userSummaryCacheMetrics(UserSummaryCache userSummaryCache) {
+    return registry -> CaffeineCacheMetrics.monitor(registry, userSummaryCache.cache(), "userSummary");
+  }
+}
@@ -0,0 +1,27 @@
+package project.newchat.common.config;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import project.newchat.common.id.ChatIdentifierGenerator;
+import project.newchat.common.id.IdGenerator;
+import project.newchat.common.id.TimeOrderedIdGenerator;
+
+@Configuration
+public class IdGeneratorConfig {
+
+  // 노드마다 다른 node-id 를 지정해야 여러 인스턴스에서 ID가 겹치지 않는다.
+  @Bean
+  @ConditionalOnMissingBean(IdGenerator.class)
+  public IdGenerator idGenerator(@Value("${chat.id.node-id:0}") long nodeId) {
+    return new TimeOrderedIdGenerator(nodeId);
+  }
+
+  // Hibernate ID 전략(ChatIdentifierGenerator)에 등록된 IdGenerator 빈 연결
+  @Bean
+  public InitializingBean chatIdentifierGeneratorRegistrar(IdGenerator idGenerator) {
+    return () -> ChatIdentifierGenerator.setDelegate(idGenerator);
+  }
+}
@@ -12,10 +12,22 @@ import project.newchat.common.handler.ChatWebSocketHandler;
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketConfigurer {
 
+  // 경로로 방 ID 를 받는 WebSocket 주소 (/ws/chat/{roomId})
+  public static final String ROOM_PATH = "/ws/chat/";
+
   private final ChatWebSocketHandler chatWebSocketHandler;
 
+  private final ChatHandshakeInterceptor chatHandshakeInterceptor;
+
+  private final ChatHandshakeHandler chatHandshakeHandler;
+
   @Override
   public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-    registry.addHandler(chatWebSocketHandler, "/chat").setAllowedOrigins("*");
+    // 방 ID는 /chat?roomId={roomId} 또는 /ws/chat/{roomId}
+    // (REST 매핑이 먼저 매칭되므로 컨트롤러와 겹치는 경로는 쓰지 않는다. 예: GET /chat/msg/{roomId})
+    registry.addHandler(chatWebSocketHandler, "/chat", ROOM_PATH + "*")
+        .setHandshakeHandler(chatHandshakeHandler)
+        .addInterceptors(chatHandshakeInterceptor)
+        .setAllowedOrigins("*");
   }
 }
@@ -0,0 +1,129 @@
+package project.newchat.common.handler;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+
+/**
+ * 바이너리 서브프로토콜(newchat.bin.v1) 프레임.
+ * 서버 -> 클라이언트: [타입 1바이트][roomId][messageId][senderId][sendTime][from][message]
+ * 클라이언트 -> 서버: [타입 1바이트][message]
+ * 숫자는 varint(7비트씩, 작은 자리부터), 문자열은 varint 바이트 길이 + UTF-8 (null 은 빈 문자열).
+ * sendTime 은 epoch 밀리초(UTC)로 보낸다.
+ */
+public final class ChatBinaryCodec {
+
+  public static final String SUB_PROTOCOL = "newchat.bin.v1";
+
+  public static final byte TYPE_MESSAGE = 1;
+
+  private static final ZoneId ZONE = ZoneId.systemDefault();
+
+  private ChatBinaryCodec() {
+  }
+
+  public static byte[] encode(ChatEnvelope envelope) {
+    byte[] from = utf8(envelope.getFrom());
+    byte[] message = utf8(envelope.getMessage());
+    ByteArrayOutputStream out = new ByteArrayOutputStream(32 + from.length + message.length);
+    out.write(TYPE_MESSAGE);
+    writeVarLong(out, orZero(envelope.getRoomId()));
+    writeVarLong(out, orZero(envelope.getMessageId()));
+    writeVarLong(out, orZero(envelope.getSenderId()));
+    writeVarLong(out, envelope.getSendTime() == null ? 0L
+        : envelope.getSendTime().atZone(ZONE).toInstant().toEpochMilli());
+    writeBytes(out, from);
+    writeBytes(out, message);
+    return out.toByteArray();
+  }
+
+  // 클라이언트 구현/테스트용
+  public static ChatEnvelope decodeEnvelope(ByteBuffer frame) {
+    readType(frame);
+    return ChatEnvelope.builder()
+        .roomId(readVarLong(frame))
+        .messageId(readVarLong(frame))
+        .senderId(readVarLong(frame))
+        .sendTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(readVarLong(frame)), ZONE))
+        .from(readString(frame))
+        .message(readString(frame))
+        .build();
+  }
+
+  // 클라이언트 구현/테스트용
+  public static byte[] encodeMessage(String message) {
+    byte[] body = utf8(message);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(6 + body.length);
+    out.write(TYPE_MESSAGE);
+    writeBytes(out, body);
+    return out.toByteArray();
+  }
+
+  /**
+   * 클라이언트가 보낸 메시지 본문. 형식이 맞지 않으면 IllegalArgumentException
+   */
+  public static String decodeMessage(ByteBuffer frame) {
+    readType(frame);
+    String message = readString(frame);
+    if (frame.hasRemaining()) {
+      throw new IllegalArgumentException("프레임 끝에 남은 데이터가 있습니다.");
+    }
+    return message;
+  }
+
+  private static void readType(ByteBuffer frame) {
+    if (!frame.hasRemaining() || frame.get() != TYPE_MESSAGE) {
+      throw new IllegalArgumentException("지원하지 않는 프레임 타입입니다.");
+    }
+  }
+
+  private static byte[] utf8(String value) {
+    return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+    writeVarLong(out, bytes.length);
+    out.write(bytes, 0, bytes.length);
+  }
+
+  private static long orZero(Long value) {
+    return value == null ? 0L : value;
+  }
+
+  private static void writeVarLong(ByteArrayOutputStream out, long v) {
+    while ((v & ~0x7FL) != 0) {
+      out.write((int) ((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    out.write((int) v);
+  }
+
+  private static String readString(ByteBuffer frame) {
+    long length = readVarLong(frame);
+    if (length < 0 || length > frame.remaining()) {
+      throw new IllegalArgumentException("문자열 길이가 프레임보다 깁니다.");
+    }
+    byte[] bytes = new byte[(int) length];
+    frame.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static long readVarLong(ByteBuffer frame) {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (!frame.hasRemaining()) {
+        throw new IllegalArgumentException("프레임이 잘렸습니다.");
+      }
+      byte b = frame.get();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("varint 가 너무 깁니다.");
+  }
+}
@@ -0,0 +1,117 @@
+package project.newchat.common.handler;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+/**
+ * 채팅방별 WebSocket 세션 저장소.
+ * 방 ID -> (세션 ID -> 세션) 의 2단 ConcurrentHashMap 으로 관리해서
+ * 입장/퇴장은 O(1), 브로드캐스트는 락 없이 약한 일관성(weakly consistent) 순회로 처리한다.
+ * 방의 첫 세션/마지막 세션 콜백(버스 구독/해제)은 방마다 두는 락 안에서 실행하고, 방 map 의 compute 안에서는 실행하지 않는다.
+ */
+@Component
+public class ChatSessionRegistry {
+
+  private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+
+  public void add(Long roomId, WebSocketSession session) {
+    add(roomId, session, () -> { });
+  }
+
+  /**
+   * @param onRoomOpened 방의 첫 세션일 때 실행 (방 단위로 remove 의 onRoomClosed 와 순서가 보장된다)
+   */
+  public void add(Long roomId, WebSocketSession session, Runnable onRoomOpened) {
+    while (true) {
+      Room room = rooms.computeIfAbsent(roomId, id -> new Room());
+      synchronized (room) {
+        if (room.closed) {
+          continue; // 마지막 세션이 빠져서 닫힌 방 -> 새로 만든다.
+        }
+        if (room.sessions.isEmpty()) {
+          onRoomOpened.run();
+        }
+        room.sessions.put(session.getId(), session);
+        return;
+      }
+    }
+  }
+
+  public void remove(Long roomId, WebSocketSession session) {
+    remove(roomId, session, () -> { });
+  }
+
+  /**
+   * @param onRoomClosed 방의 마지막 세션이 빠졌을 때 실행
+   */
+  public void remove(Long roomId, WebSocketSession session, Runnable onRoomClosed) {
+    Room room = rooms.get(roomId);
+    if (room == null) {
+      return;
+    }
+    synchronized (room) {
+      if (room.sessions.remove(session.getId()) == null || !room.sessions.isEmpty()) {
+        return;
+      }
+      // 마지막 세션이 빠지면 방 자체를 제거. 콜백이 끝날 때까지 map 에 남겨 두어서
+      // 그동안 들어온 add 가 콜백 뒤에 onRoomOpened 를 실행하게 한다.
+      room.closed = true;
+      try {
+        onRoomClosed.run();
+      } finally {
+        rooms.remove(roomId, room);
+      }
+    }
+  }
+
+  /**
+   * 브로드캐스트용 세션 목록. 순회 중 입장/퇴장이 일어나도 ConcurrentModificationException 이 발생하지 않는다.
+   */
+  public Collection<WebSocketSession> getSessions(Long roomId) {
+    Room room = rooms.get(roomId);
+    if (room == null) {
+      return Collections.emptyList();
+    }
+    return room.sessions.values();
+  }
+
+  public int roomCount() {
+    return rooms.size();
+  }
+
+  public int sessionCount() {
+    return rooms.values().stream().mapToInt(room -> room.sessions.size()).sum();
+  }
+
+  /**
+   * 세션 ID 별 송신 대기 중인 바이트 수 (느린 클라이언트 확인용)
+   */
+  public Map<String, Integer> outboundBufferSizes() {
+    Map<String, Integer> bufferSizes = new HashMap<>();
+    for (Room room : rooms.values()) {
+      for (WebSocketSession session : room.sessions.values()) {
+        if (session instanceof ConcurrentWebSocketSessionDecorator) {
+          bufferSizes.put(session.getId(),
+              ((ConcurrentWebSocketSessionDecorator) session).getBufferSize());
+        }
+      }
+    }
+    return bufferSizes;
+  }
+
+  /**
+   * 방 하나의 세션. 입장/퇴장은 이 객체로 동기화한다.
+   */
+  private static class Room {
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    private boolean closed;
+  }
+}
@@ -1,64 +1,226 @@
 package project.newchat.common.handler;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import project.newchat.chatmsg.domain.request.ChatMsgRequest;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+import project.newchat.chatmsg.service.ChatMsgService;
+import project.newchat.common.broadcast.ChatBroadcastBus;
+import project.newchat.common.config.ChatHandshakeInterceptor;
 import project.newchat.common.exception.CustomException;
+import project.newchat.common.metrics.ChatMetrics;
+import project.newchat.common.type.ChatEnvelopeType;
 import project.newchat.common.type.ErrorCode;
+import project.newchat.common.type.SlowConsumerPolicy;
 
 @Component
 @Slf4j
-public class ChatWebSocketHandler implements WebSocketHandler {
+@RequiredArgsConstructor
+public class ChatWebSocketHandler implements WebSocketHandler, SubProtocolCapable {
 
-  private Map<Long, List<WebSocketSession>> chatRooms = new HashMap<>();
-  // 방의 키값
+  // 방 퇴장으로 서버가 종료한 연결
+  private static final CloseStatus LEFT_ROOM = new CloseStatus(4000, "left room");
+
+  // 방 삭제로 서버가 종료한 연결
+  private static final CloseStatus ROOM_DELETED = new CloseStatus(4001, "room deleted");
+
+  // 방의 키값 -> 세션 (동시 입장/퇴장/브로드캐스트 안전)
+  private final ChatSessionRegistry chatRooms;
+
+  private final ObjectMapper objectMapper;
+
+  private final ChatMsgService chatMsgService;
+
+  // 다른 서버에 접속한 같은 방 세션까지 전달
+  private final ChatBroadcastBus chatBroadcastBus;
+
+  private final ChatMetrics chatMetrics;
+
+  // 구독/해제에 같은 인스턴스를 사용
+  private final Consumer<ChatEnvelope> roomListener = this::deliver;
+
+  // 송신이 막힌 세션은 close frame 전송도 막힐 수 있으므로 브로드캐스트 스레드가 아닌 곳에서 종료
+  private final ExecutorService closer = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "chat-ws-closer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  // 세션별 송신 큐 한도 (느린 클라이언트가 방 전체 전송을 막지 않도록)
+  @Value("${chat.ws.send-time-limit-ms:5000}")
+  private int sendTimeLimit;
+
+  @Value("${chat.ws.send-buffer-size-limit:524288}")
+  private int sendBufferSizeLimit;
+
+  @Value("${chat.ws.slow-consumer-policy:DROP}")
+  private SlowConsumerPolicy slowConsumerPolicy;
 
   // 연결이 되었을 때
   @Override
   public void afterConnectionEstablished(WebSocketSession session)
       throws Exception {
-    Long roomId = extractRoomId(session);
-    // roomId 가 없을 경우, session list (new ArrayList)
-    List<WebSocketSession> roomSessions = chatRooms.getOrDefault(roomId, new ArrayList<>());
-    // 세션 추가
-    roomSessions.add(session);
-    // 해당 방의 키값에 session list 추가
-    chatRooms.put(roomId, roomSessions);
+    Long roomId = roomId(session);
+    if (roomId == null) {
+      // 핸드셰이크를 거치지 않아 방을 알 수 없는 연결은 등록하지 않고 종료
+      log.info(session + "의 채팅방 ID를 확인할 수 없습니다.");
+      session.close(CloseStatus.BAD_DATA);
+      return;
+    }
+    // 이 서버에 방의 첫 세션이 생기면 방 채널 구독
+    chatRooms.add(roomId, new ConcurrentWebSocketSessionDecorator(
+            session, sendTimeLimit, sendBufferSizeLimit, slowConsumerPolicy.getOverflowStrategy()),
+        () -> chatBroadcastBus.subscribe(roomId, roomListener));
     log.info(session + "의 클라이언트 접속");
   }
 
+  // 클라이언트가 Sec-WebSocket-Protocol 로 요청한 경우에만 바이너리, 없으면 JSON 텍스트
+  @Override
+  public List<String> getSubProtocols() {
+    return List.of(ChatBinaryCodec.SUB_PROTOCOL);
+  }
+
   // 클라이언트로부터 받은 메시지를 처리하는 로직
   @Override
   public void handleMessage(WebSocketSession session, WebSocketMessage<?> message)
       throws Exception {
-    Long roomId = extractRoomId(session);
-    List<WebSocketSession> roomSessions = chatRooms.get(roomId);
-    if (roomSessions != null) {
-      String payload = message.getPayload().toString();
-      log.info("전송 메시지: " + payload);
-
-      for (WebSocketSession msg : roomSessions) {
-        try {
-          msg.sendMessage(message);
-        } catch (IOException e) {
-          throw new CustomException(ErrorCode.CHAT_ERROR);
-        }
+    Long roomId = roomId(session);
+    Long userId = (Long) session.getAttributes().get(ChatHandshakeInterceptor.USER_ID);
+    String payload;
+    if (message instanceof BinaryMessage) {
+      try {
+        payload = ChatBinaryCodec.decodeMessage((ByteBuffer) message.getPayload());
+      } catch (IllegalArgumentException e) {
+        log.info(session.getId() + " 잘못된 바이너리 프레임: " + e.getMessage());
+        session.close(CloseStatus.BAD_DATA);
+        return;
       }
     } else {
-      log.info("해당 채팅방에 클라이언트가 없습니다.");
-      throw new CustomException(ErrorCode.NOT_EXIST_CLIENT);
+      payload = message.getPayload().toString();
+    }
+    log.info("전송 메시지: " + payload);
+    // 저장 후 브로드캐스트 버스로 발행 -> deliver 로 방 세션에 전달
+    chatMsgService.sendMessage(new ChatMsgRequest(payload), userId, roomId);
+  }
+
+  // 버스에서 받은 메시지를 이 서버의 방 세션에 전송
+  private void deliver(ChatEnvelope envelope) {
+    if (envelope.getType() == ChatEnvelopeType.LEAVE) {
+      Long userId = envelope.getSenderId();
+      evict(envelope.getRoomId(),
+          session -> userId.equals(session.getAttributes().get(ChatHandshakeInterceptor.USER_ID)),
+          LEFT_ROOM);
+      return;
+    }
+    if (envelope.getType() == ChatEnvelopeType.ROOM_DELETED) {
+      evict(envelope.getRoomId(), session -> true, ROOM_DELETED);
+      return;
+    }
+    Collection<WebSocketSession> roomSessions = chatRooms.getSessions(envelope.getRoomId());
+    if (!roomSessions.isEmpty()) {
+      long start = System.nanoTime();
+      int recipients = broadcast(roomSessions, envelope);
+      chatMetrics.fanOut(start, recipients);
     }
   }
 
+  // 방에서 나간 유저(삭제된 방)의 세션은 먼저 등록 해제해서 바로 브로드캐스트 대상에서 빼고 연결 종료
+  private void evict(Long roomId, Predicate<WebSocketSession> target, CloseStatus status) {
+    for (WebSocketSession session : chatRooms.getSessions(roomId)) {
+      if (!target.test(session)) {
+        continue;
+      }
+      chatRooms.remove(roomId, session, () -> chatBroadcastBus.unsubscribe(roomId, roomListener));
+      try {
+        session.close(status);
+      } catch (IOException e) {
+        log.warn(session.getId() + " 퇴장 세션 종료 실패: " + e.getMessage());
+      }
+    }
+  }
+
+  // byte[] 로 생성해야 세션마다 getPayloadLength() 에서 UTF-8 재인코딩이 일어나지 않는다.
+  private TextMessage encode(ChatEnvelope envelope) {
+    try {
+      return new TextMessage(objectMapper.writeValueAsBytes(envelope));
+    } catch (JsonProcessingException e) {
+      throw new CustomException(ErrorCode.CHAT_ERROR);
+    }
+  }
+
+  // 프로토콜별로 메시지당 한 번만 직렬화해서 (수신자 수와 무관하게 인코딩 비용 일정)
+  // 동일한 프레임을 모든 수신자에게 그대로 전송, 전송한 세션 수 반환
+  private int broadcast(Collection<WebSocketSession> roomSessions, ChatEnvelope envelope) {
+    TextMessage text = null;
+    byte[] binary = null;
+    int recipients = 0;
+    for (WebSocketSession msg : roomSessions) {
+      // 한 세션의 실패가 나머지 세션 전송을 중단시키지 않도록 세션 단위로 처리
+      try {
+        if (ChatBinaryCodec.SUB_PROTOCOL.equals(msg.getAcceptedProtocol())) {
+          if (binary == null) {
+            binary = ChatBinaryCodec.encode(envelope);
+          }
+          // 전송하면서 ByteBuffer 위치가 바뀌므로 바이트 배열만 공유하고 세션마다 감싼다.
+          msg.sendMessage(new BinaryMessage(binary));
+        } else {
+          if (text == null) {
+            text = encode(envelope);
+          }
+          msg.sendMessage(text);
+        }
+        recipients++;
+      } catch (SessionLimitExceededException e) {
+        chatMetrics.sendLimitExceeded();
+        log.warn(msg.getId() + " 세션 송신 한도 초과로 연결 종료: " + e.getMessage());
+        closeUnreliable(envelope.getRoomId(), msg);
+      } catch (IOException e) {
+        chatMetrics.sendIoFailure();
+        log.warn(msg.getId() + " 세션 전송 실패: " + e.getMessage());
+      }
+    }
+    return recipients;
+  }
+
+  // 한도를 넘은 세션은 데코레이터가 이후 전송을 모두 버리므로 바로 등록 해제하고 종료
+  private void closeUnreliable(Long roomId, WebSocketSession session) {
+    chatRooms.remove(roomId, session, () -> chatBroadcastBus.unsubscribe(roomId, roomListener));
+    closer.execute(() -> {
+      try {
+        session.close(CloseStatus.SESSION_NOT_RELIABLE);
+      } catch (IOException e) {
+        log.warn(session.getId() + " 송신 한도 초과 세션 종료 실패: " + e.getMessage());
+      }
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    closer.shutdownNow();
+  }
+
   //오류 처리 로직을 구현 (네트워크 오류, 프로토콜 오류, 처리 오류... 생각 중)
   @Override
   public void handleTransportError(WebSocketSession session, Throwable exception)
@@ -70,11 +232,10 @@ public class ChatWebSocketHandler implements WebSocketHandler {
   @Override
   public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus)
       throws Exception {
-    Long roomId = extractRoomId(session); // 클라이언트가 속한 채팅방 ID를 추출
-
-    List<WebSocketSession> roomSessions = chatRooms.get(roomId);
-    if (roomSessions != null) {
-      roomSessions.remove(session);
+    Long roomId = roomId(session); // 클라이언트가 속한 채팅방 ID
+    if (roomId != null) {
+      // 이 서버에서 방의 마지막 세션이 나가면 구독 해제
+      chatRooms.remove(roomId, session, () -> chatBroadcastBus.unsubscribe(roomId, roomListener));
     }
     log.info(session + "의 클라이언트 접속 해제");
   }
@@ -86,19 +247,8 @@ public class ChatWebSocketHandler implements WebSocketHandler {
     return false;
   }
 
-  private Long extractRoomId(WebSocketSession session) {
-    Long roomId = null;
-    String uri = Objects.requireNonNull(session.getUri()).toString();
-    String[] uriParts = uri.split("/");
-    // /chat/msg/{roomId} 일 때 roomId 추출
-    if (uriParts.length >= 4 && uriParts[2].equals("msg")) {
-      return Long.valueOf(uriParts[3]);
-    }
-    // /chat/room/join/{roomId}, /chat/room/out/{roomId}, /chat/room/delete/{roomId} 일 때 roomId 추출
-    if (uriParts.length >= 5 && uriParts[2].equals("room") &&
-        (uriParts[3].equals("join") || uriParts[3].equals("out") || uriParts[3].equals("delete"))) {
-      roomId = Long.valueOf(uriParts[4]);
-    }
-    return roomId;
+  // 핸드셰이크에서 확인한 채팅방 ID (메시지마다 URI 를 파싱하지 않는다)
+  private static Long roomId(WebSocketSession session) {
+    return (Long) session.getAttributes().get(ChatHandshakeInterceptor.ROOM_ID);
   }
 }
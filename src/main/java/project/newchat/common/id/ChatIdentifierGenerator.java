@@ -0,0 +1,31 @@
+package project.newchat.common.id;
+
+import java.io.Serializable;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * Hibernate 가 직접 생성하는 ID 전략 클래스 -> 스프링 빈 {@link IdGenerator} 로 위임
+ * 빈이 등록되기 전에는 ID 를 발급하지 않는다 (따로 만든 발급기는 같은 노드 ID 의 빈과 겹칠 수 있음).
+ */
+public class ChatIdentifierGenerator implements IdentifierGenerator {
+
+  public static final String NAME = "chat_id";
+
+  public static final String STRATEGY = "project.newchat.common.id.ChatIdentifierGenerator";
+
+  private static volatile IdGenerator delegate;
+
+  public static void setDelegate(IdGenerator idGenerator) {
+    delegate = idGenerator;
+  }
+
+  @Override
+  public Serializable generate(SharedSessionContractImplementor session, Object object) {
+    IdGenerator idGenerator = delegate;
+    if (idGenerator == null) {
+      throw new IllegalStateException("IdGenerator 빈이 아직 등록되지 않았습니다.");
+    }
+    return idGenerator.nextId();
+  }
+}
@@ -0,0 +1,11 @@
+package project.newchat.common.id;
+
+/**
+ * 엔티티 ID 발급기.
+ * DB(IDENTITY) 대신 애플리케이션에서 ID를 발급해야 Hibernate INSERT 배치와 write-behind 저장이 가능하다.
+ * 기본 구현은 {@link TimeOrderedIdGenerator} 이며, 다른 구현을 빈으로 등록하면 교체된다.
+ */
+public interface IdGenerator {
+
+  long nextId();
+}
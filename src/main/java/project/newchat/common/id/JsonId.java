@@ -0,0 +1,21 @@
+package project.newchat.common.id;
+
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@link IdGenerator} 가 발급한 ID 필드를 JSON 문자열로 직렬화한다.
+ * 발급 ID 는 2^53 보다 커서 JS 클라이언트가 숫자로 받으면 반올림되어 커서/방 주소가 깨진다.
+ * 역직렬화는 Jackson 기본 동작으로 문자열과 숫자를 모두 받는다.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@JacksonAnnotationsInside
+@JsonSerialize(using = ToStringSerializer.class)
+public @interface JsonId {
+}
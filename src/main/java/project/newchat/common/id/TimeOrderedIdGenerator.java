@@ -0,0 +1,50 @@
+package project.newchat.common.id;
+
+/**
+ * 시간순으로 증가하는 64비트 ID 생성기.
+ * [41비트 epoch 이후 ms][10비트 노드 ID][12비트 시퀀스] 구조로
+ * DB 왕복 없이 ID를 미리 발급할 수 있고, 한 노드 안에서는 항상 단조 증가한다.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+  private static final long EPOCH = 1672531200000L; // 2023-01-01T00:00:00Z
+  private static final int NODE_BITS = 10;
+  private static final int SEQUENCE_BITS = 12;
+  private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+  private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+  private final long nodeId;
+
+  private long lastTimestamp = -1L;
+
+  private long sequence = 0L;
+
+  public TimeOrderedIdGenerator(long nodeId) {
+    if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+      throw new IllegalArgumentException("node-id 는 0 ~ " + MAX_NODE_ID + " 사이여야 합니다: " + nodeId);
+    }
+    this.nodeId = nodeId;
+  }
+
+  @Override
+  public synchronized long nextId() {
+    long timestamp = System.currentTimeMillis();
+    // 시계가 뒤로 간 경우 마지막 시각을 그대로 사용해서 단조 증가를 유지
+    if (timestamp < lastTimestamp) {
+      timestamp = lastTimestamp;
+    }
+    if (timestamp == lastTimestamp) {
+      sequence = (sequence + 1) & SEQUENCE_MASK;
+      if (sequence == 0) {
+        // 같은 ms 안에서 시퀀스를 다 쓴 경우 다음 ms 로 넘긴다.
+        timestamp = lastTimestamp + 1;
+      }
+    } else {
+      sequence = 0L;
+    }
+    lastTimestamp = timestamp;
+    return ((timestamp - EPOCH) << (NODE_BITS + SEQUENCE_BITS))
+        | (nodeId << SEQUENCE_BITS)
+        | sequence;
+  }
+}
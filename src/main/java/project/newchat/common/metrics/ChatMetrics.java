@@ -0,0 +1,244 @@
+package project.newchat.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import org.springframework.stereotype.Component;
+import project.newchat.common.type.RoomJoinMode;
+
+/**
+ * 채팅 서버 지표 (Micrometer, 관리 포트의 /actuator/prometheus 로 수집).
+ * 태그는 값 종류가 고정된 것(mode, source, outcome, reason, table)만 사용하고 방/유저 ID 는 태그로 쓰지 않는다.
+ * 미터는 생성 시 한 번만 등록해두고 호출마다 레지스트리를 조회하지 않는다.
+ */
+@Component
+public class ChatMetrics {
+
+  public static final String SOURCE_BUFFER = "buffer";
+  public static final String SOURCE_DB = "db";
+  public static final String TABLE_CHAT_MSG = "chat_msg";
+  public static final String TABLE_USER_CHAT_ROOM = "user_chat_room";
+
+  private final MeterRegistry registry;
+
+  private final Timer fanOut;
+  private final DistributionSummary fanOutRecipients;
+  private final Counter sendLimitExceeded;
+  private final Counter sendIoFailure;
+
+  private final Map<RoomJoinMode, Timer> joinLockWait = new EnumMap<>(RoomJoinMode.class);
+  private final Map<RoomJoinMode, Counter> joinLockTimeout = new EnumMap<>(RoomJoinMode.class);
+  private final Map<RoomJoinMode, Counter> joinRetry = new EnumMap<>(RoomJoinMode.class);
+  private final Timer joinQueueWait;
+  private final Counter joinBusy;
+
+  private final Timer msgSend;
+  private final Timer persistSuccess;
+  private final Timer persistFailure;
+  private final DistributionSummary persistBatchSize;
+  private final Counter persistDeadLetter;
+
+  private final Timer historyBuffer;
+  private final Timer historyDb;
+  private final DistributionSummary historyBufferRows;
+  private final DistributionSummary historyDbRows;
+
+  private final Map<String, Timer> purgeChunk = new HashMap<>();
+  private final Map<String, Counter> purgeRows = new HashMap<>();
+  private final Counter purgedRooms;
+
+  private final Counter archivedMsgs;
+
+  private final Timer search;
+  private final DistributionSummary searchRows;
+
+  public ChatMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    fanOut = Timer.builder("chat.broadcast.fanout")
+        .description("메시지 한 건을 이 서버의 방 세션에 전송하는 시간 (직렬화 포함)")
+        .register(registry);
+    fanOutRecipients = DistributionSummary.builder("chat.broadcast.recipients")
+        .description("브로드캐스트 한 건의 수신 세션 수")
+        .register(registry);
+    sendLimitExceeded = sendFailure(registry, "limit_exceeded");
+    sendIoFailure = sendFailure(registry, "io");
+
+    for (RoomJoinMode mode : RoomJoinMode.values()) {
+      String tag = mode.name().toLowerCase();
+      joinLockWait.put(mode, Timer.builder("chat.room.join.lock.wait")
+          .description("방 입장 시 방 row 락 획득(조회 또는 조건부 UPDATE) 시간")
+          .tag("mode", tag)
+          .register(registry));
+      joinLockTimeout.put(mode, Counter.builder("chat.room.join.lock.timeouts")
+          .description("방 입장 락 대기 시간 초과")
+          .tag("mode", tag)
+          .register(registry));
+      joinRetry.put(mode, Counter.builder("chat.room.join.retries")
+          .description("락 대기 초과로 다시 시도한 방 입장")
+          .tag("mode", tag)
+          .register(registry));
+    }
+    joinQueueWait = Timer.builder("chat.room.join.queue.wait")
+        .description("방별 입장 동시성 제한에서 대기한 시간")
+        .register(registry);
+    joinBusy = Counter.builder("chat.room.join.busy")
+        .description("대기/재시도 한도를 넘어 ROOM_JOIN_BUSY 로 거절된 방 입장")
+        .register(registry);
+
+    msgSend = Timer.builder("chat.msg.send")
+        .description("sendMessage 처리 시간 (저장은 버퍼 적재까지)")
+        .register(registry);
+    persistSuccess = persist(registry, "success");
+    persistFailure = persist(registry, "failure");
+    persistBatchSize = DistributionSummary.builder("chat.msg.persist.batch.size")
+        .description("write-behind 배치 한 번에 저장한 메시지 수")
+        .register(registry);
+    persistDeadLetter = Counter.builder("chat.msg.persist.dead.letter")
+        .description("건별 재시도도 실패해서 dead-letter 파일로 보낸 메시지 수")
+        .register(registry);
+
+    historyBuffer = history(registry, SOURCE_BUFFER);
+    historyDb = history(registry, SOURCE_DB);
+    historyBufferRows = historyRows(registry, SOURCE_BUFFER);
+    historyDbRows = historyRows(registry, SOURCE_DB);
+
+    for (String table : List.of(TABLE_CHAT_MSG, TABLE_USER_CHAT_ROOM)) {
+      purgeChunk.put(table, Timer.builder("chat.room.purge.chunk")
+          .description("삭제된 방 정리 DELETE chunk 한 번의 시간")
+          .tag("table", table)
+          .register(registry));
+      purgeRows.put(table, Counter.builder("chat.room.purge.rows")
+          .description("삭제된 방 정리로 지운 행 수")
+          .tag("table", table)
+          .register(registry));
+    }
+    purgedRooms = Counter.builder("chat.room.purge.rooms")
+        .description("정리가 끝난 삭제 방 수")
+        .register(registry);
+    archivedMsgs = Counter.builder("chat.msg.archive.moved")
+        .description("chat_msg 에서 아카이브로 옮긴 메시지 수")
+        .register(registry);
+    search = Timer.builder("chat.msg.search")
+        .description("메시지 검색 시간 (인덱스 조회 + 메시지 읽기)")
+        .register(registry);
+    searchRows = DistributionSummary.builder("chat.msg.search.rows")
+        .description("메시지 검색 결과 건수")
+        .register(registry);
+  }
+
+  // 상태값 지표 등록 (obj 는 약한 참조로 보관된다)
+  public <T> void gauge(String name, String description, T obj, ToDoubleFunction<T> value) {
+    Gauge.builder(name, obj, value)
+        .description(description)
+        .register(registry);
+  }
+
+  public void fanOut(long startNanos, int recipients) {
+    fanOut.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    fanOutRecipients.record(recipients);
+  }
+
+  public void sendLimitExceeded() {
+    sendLimitExceeded.increment();
+  }
+
+  public void sendIoFailure() {
+    sendIoFailure.increment();
+  }
+
+  public void joinLockWait(RoomJoinMode mode, long startNanos) {
+    joinLockWait.get(mode).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void joinLockTimeout(RoomJoinMode mode) {
+    joinLockTimeout.get(mode).increment();
+  }
+
+  public void joinRetry(RoomJoinMode mode) {
+    joinRetry.get(mode).increment();
+  }
+
+  public void joinQueueWait(long startNanos) {
+    joinQueueWait.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void joinBusy() {
+    joinBusy.increment();
+  }
+
+  public void msgSend(long startNanos) {
+    msgSend.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void persist(long startNanos, int batchSize, boolean success) {
+    (success ? persistSuccess : persistFailure)
+        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    if (success) {
+      persistBatchSize.record(batchSize);
+    }
+  }
+
+  public void deadLetter() {
+    persistDeadLetter.increment();
+  }
+
+  public void history(String source, long startNanos, int rows) {
+    boolean buffer = SOURCE_BUFFER.equals(source);
+    (buffer ? historyBuffer : historyDb).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    (buffer ? historyBufferRows : historyDbRows).record(rows);
+  }
+
+  public void purgeChunk(String table, long startNanos, int rows) {
+    purgeChunk.get(table).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    purgeRows.get(table).increment(rows);
+  }
+
+  public void purgedRoom() {
+    purgedRooms.increment();
+  }
+
+  public void archived(int chatMsgs) {
+    archivedMsgs.increment(chatMsgs);
+  }
+
+  public void search(long startNanos, int rows) {
+    search.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    searchRows.record(rows);
+  }
+
+  private static Counter sendFailure(MeterRegistry registry, String reason) {
+    return Counter.builder("chat.broadcast.send.failures")
+        .description("세션 전송 실패 (송신 한도 초과, 네트워크 오류)")
+        .tag("reason", reason)
+        .register(registry);
+  }
+
+  private static Timer persist(MeterRegistry registry, String outcome) {
+    return Timer.builder("chat.msg.persist")
+        .description("채팅 메시지 배치 저장 시간")
+        .tag("outcome", outcome)
+        .register(registry);
+  }
+
+  private static Timer history(MeterRegistry registry, String source) {
+    return Timer.builder("chat.msg.history")
+        .description("메시지 이력 조회 시간")
+        .tag("source", source)
+        .register(registry);
+  }
+
+  private static DistributionSummary historyRows(MeterRegistry registry, String source) {
+    return DistributionSummary.builder("chat.msg.history.rows")
+        .description("메시지 이력 조회 건수")
+        .tag("source", source)
+        .register(registry);
+  }
+}
@@ -0,0 +1,113 @@
+package project.newchat.common.routing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 채팅방 -> 담당 서버 라우팅 (가상 노드를 쓰는 consistent hash ring).
+ * 같은 방의 세션을 한 서버로 모아서 브로드캐스트가 대부분 서버 안에서 끝나도록 한다.
+ * 서버가 추가/제거되면 그 서버 몫의 방만 옮겨진다.
+ * chat.routing.nodes 가 비어 있으면 모든 방을 이 서버가 담당한다.
+ * 목록이 있으면 chat.routing.self 가 그중 하나여야 한다 (아니면 모든 방을 다른 서버로 보내게 됨).
+ */
+@Component
+public class RoomRouter {
+
+  private final String self;
+
+  private final int virtualNodes;
+
+  private final Set<String> nodes = new LinkedHashSet<>();
+
+  // 읽기는 락 없이 스냅샷으로, 변경 시 새 링으로 교체
+  private volatile NavigableMap<Long, String> ring = Collections.emptyNavigableMap();
+
+  public RoomRouter(
+      @Value("${chat.routing.nodes:}") List<String> nodes,
+      @Value("${chat.routing.self:}") String self,
+      @Value("${chat.routing.virtual-nodes:160}") int virtualNodes) {
+    this.self = self.trim();
+    this.virtualNodes = virtualNodes;
+    for (String node : nodes) {
+      if (!node.isBlank()) {
+        this.nodes.add(node.trim());
+      }
+    }
+    if (!this.nodes.isEmpty() && !this.nodes.contains(this.self)) {
+      throw new IllegalArgumentException("chat.routing.self(" + this.self
+          + ") 가 chat.routing.nodes " + this.nodes + " 에 없습니다.");
+    }
+    rebuild();
+  }
+
+  /**
+   * 방을 담당하는 서버 (서버 주소, 예: ws://chat-1:8080). 라우팅을 사용하지 않으면 null
+   */
+  public String ownerOf(Long roomId) {
+    NavigableMap<Long, String> current = ring;
+    if (current.isEmpty()) {
+      return null;
+    }
+    Map.Entry<Long, String> entry = current.ceilingEntry(mix(roomId));
+    return entry != null ? entry.getValue() : current.firstEntry().getValue();
+  }
+
+  // 이 서버가 담당하는 방인지
+  public boolean isLocal(Long roomId) {
+    String owner = ownerOf(roomId);
+    return owner == null || owner.equals(self);
+  }
+
+  public synchronized void addNode(String node) {
+    if (nodes.add(node)) {
+      rebuild();
+    }
+  }
+
+  public synchronized void removeNode(String node) {
+    if (nodes.remove(node)) {
+      rebuild();
+    }
+  }
+
+  public synchronized Collection<String> nodes() {
+    return List.copyOf(nodes);
+  }
+
+  private void rebuild() {
+    NavigableMap<Long, String> rebuilt = new TreeMap<>();
+    for (String node : nodes) {
+      for (int i = 0; i < virtualNodes; i++) {
+        rebuilt.put(hash(node + "#" + i), node);
+      }
+    }
+    ring = rebuilt;
+  }
+
+  // 64비트 FNV-1a 후 비트 섞기
+  private static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      h ^= b;
+      h *= 0x100000001b3L;
+    }
+    return mix(h);
+  }
+
+  // 순차적인 방 ID 도 링 전체에 고르게 퍼지도록 (splitmix64 finalizer)
+  private static long mix(long value) {
+    long h = value;
+    h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+    h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+    return h ^ (h >>> 31);
+  }
+}
@@ -0,0 +1,11 @@
+package project.newchat.common.type;
+
+/**
+ * 브로드캐스트 버스로 전달되는 이벤트 종류
+ */
+public enum ChatEnvelopeType {
+  MESSAGE, // 채팅 메시지 -> 방 세션에 전송
+  // 아래 이벤트는 방 구독과 관계없이 모든 서버에 전달되고, 클라이언트에는 전송하지 않는다.
+  LEAVE, // 방 퇴장 -> 각 서버가 senderId 유저를 참여자 인덱스에서 빼고 방 세션/스트림을 종료
+  ROOM_DELETED // 방 삭제 -> 각 서버가 방 캐시를 지우고 방의 모든 세션/스트림을 종료
+}
@@ -19,7 +19,10 @@ public enum ErrorCode {
   CHAT_ERROR("채팅이 전송에 오류가 있습니다."),
   NOT_ROOM_CREATOR("방 생성자가 아닙니다."),
   NOT_EXIST_CLIENT("채팅방에 클라이언트가 없습니다."),
-  ALREADY_JOIN_ROOM("이미 채팅방에 입장해 있습니다.");
+  ALREADY_JOIN_ROOM("이미 채팅방에 입장해 있습니다."),
+  NOT_ROOM_MEMBER("채팅방 참여자가 아닙니다."),
+  ROOM_JOIN_BUSY("입장 요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요."),
+  INVALID_SEARCH_QUERY("검색어에 검색할 수 있는 단어가 없습니다.");
 
   private final String description;
 }
\ No newline at end of file
@@ -25,10 +25,12 @@ public enum ResponseMessage {
   CHAT_ROOM_USER_SELF_BY_LIST_SELECT_SUCCESS,
   NOT_EXIST_CHAT_ROOM_BY_USER_SELF_PART,
   CHAT_ROOM_USER_SELF_PART_BY_LIST_SELECT_SUCCESS,
+  CHAT_ROOM_NODE_SELECT_SUCCESS,
   /**
    * CHAT_MSG
    */
   SEND_CHAT_MSG_SUCCESS,
   CHAT_ROOM_MSG_LIST_SELECT_SUCCESS,
-  NOT_EXIST_CHAT_ROOM_MSG_LIST
+  NOT_EXIST_CHAT_ROOM_MSG_LIST,
+  CHAT_MSG_SEARCH_SUCCESS
 }
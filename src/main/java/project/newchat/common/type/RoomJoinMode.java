@@ -0,0 +1,9 @@
+package project.newchat.common.type;
+
+/**
+ * 채팅방 입장(정원 체크) 방식
+ */
+public enum RoomJoinMode {
+  ATOMIC, // chat_room.current_user_count 조건부 UPDATE 한 번 (행 락 조회 없음)
+  PESSIMISTIC // chat_room, user_chat_room 비관적 락 조회 후 카운트
+}
@@ -0,0 +1,17 @@
+package project.newchat.common.type;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+
+/**
+ * 세션별 송신 큐가 한도(크기/시간)를 넘었을 때의 처리 정책
+ */
+@Getter
+@AllArgsConstructor
+public enum SlowConsumerPolicy {
+  DROP(OverflowStrategy.DROP), // 오래된 메시지부터 버리고 최신 메시지만 유지
+  DISCONNECT(OverflowStrategy.TERMINATE); // 세션 종료
+
+  private final OverflowStrategy overflowStrategy;
+}
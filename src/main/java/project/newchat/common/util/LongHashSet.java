@@ -0,0 +1,122 @@
+package project.newchat.common.util;
+
+import java.util.Arrays;
+
+/**
+ * long 전용 해시 셋 (open addressing, linear probing).
+ * Long 박싱 없이 원소당 8바이트 내외로 보관한다. 0 은 빈 칸 표시로 쓰므로 별도 플래그로 관리한다.
+ * 스레드 안전하지 않다.
+ */
+public class LongHashSet {
+
+  private static final long EMPTY = 0L;
+
+  private static final float LOAD_FACTOR = 0.5f;
+
+  private long[] table;
+
+  private int size;
+
+  private boolean containsZero;
+
+  public LongHashSet() {
+    this(16);
+  }
+
+  public LongHashSet(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+    this.table = new long[capacity];
+  }
+
+  public boolean add(long value) {
+    if (value == EMPTY) {
+      if (containsZero) {
+        return false;
+      }
+      containsZero = true;
+      size++;
+      return true;
+    }
+    int index = indexOf(value, table);
+    if (table[index] == value) {
+      return false;
+    }
+    table[index] = value;
+    if (++size > table.length * LOAD_FACTOR) {
+      resize(table.length << 1);
+    }
+    return true;
+  }
+
+  public boolean contains(long value) {
+    if (value == EMPTY) {
+      return containsZero;
+    }
+    return table[indexOf(value, table)] == value;
+  }
+
+  public boolean remove(long value) {
+    if (value == EMPTY) {
+      if (!containsZero) {
+        return false;
+      }
+      containsZero = false;
+      size--;
+      return true;
+    }
+    int mask = table.length - 1;
+    int index = indexOf(value, table);
+    if (table[index] != value) {
+      return false;
+    }
+    table[index] = EMPTY;
+    size--;
+    // 삭제한 칸 뒤에 이어진 원소들을 다시 배치해서 탐색이 끊기지 않게 한다.
+    for (int i = (index + 1) & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+      long moved = table[i];
+      table[i] = EMPTY;
+      table[indexOf(moved, table)] = moved;
+    }
+    return true;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(table, EMPTY);
+    containsZero = false;
+    size = 0;
+  }
+
+  private void resize(int capacity) {
+    long[] resized = new long[capacity];
+    for (long value : table) {
+      if (value != EMPTY) {
+        resized[indexOf(value, resized)] = value;
+      }
+    }
+    table = resized;
+  }
+
+  // value 가 있는 칸 또는 처음 만나는 빈 칸
+  private static int indexOf(long value, long[] table) {
+    int mask = table.length - 1;
+    int index = hash(value) & mask;
+    while (table[index] != EMPTY && table[index] != value) {
+      index = (index + 1) & mask;
+    }
+    return index;
+  }
+
+  private static int hash(long value) {
+    // 순차 ID 가 한쪽에 몰리지 않도록 비트를 섞는다.
+    long h = value * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
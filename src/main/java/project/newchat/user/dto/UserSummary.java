@@ -0,0 +1,19 @@
+package project.newchat.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import project.newchat.user.domain.User;
+
+/**
+ * 캐시에 보관하는 유저 요약 정보 (ID, 닉네임)
+ */
+@Getter
+@AllArgsConstructor
+public class UserSummary {
+  private final Long id;
+  private final String nickname;
+
+  public static UserSummary from(User user) {
+    return new UserSummary(user.getId(), user.getNickname());
+  }
+}
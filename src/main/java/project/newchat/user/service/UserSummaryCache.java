@@ -0,0 +1,75 @@
+package project.newchat.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import project.newchat.common.exception.CustomException;
+import project.newchat.common.type.ErrorCode;
+import project.newchat.user.dto.UserSummary;
+import project.newchat.user.repository.UserRepository;
+
+/**
+ * 유저 요약 정보(ID, 닉네임) 캐시.
+ * 메시지 전송/조회마다 발생하던 user PK 조회를 줄이기 위해 최대 max-size 건을 TTL 동안 보관한다.
+ * 닉네임 등 프로필이 바뀌면 evict 로 직접 무효화해야 한다.
+ */
+@Component
+public class UserSummaryCache {
+
+  private final UserRepository userRepository;
+
+  private final Cache<Long, UserSummary> cache;
+
+  @Autowired
+  public UserSummaryCache(
+      UserRepository userRepository,
+      @Value("${chat.user.cache.max-size:100000}") long maxSize,
+      @Value("${chat.user.cache.ttl-seconds:600}") long ttlSeconds) {
+    this(userRepository, maxSize, ttlSeconds, Ticker.systemTicker());
+  }
+
+  // 테스트에서 TTL 만료를 확인할 수 있도록 시계를 받는다.
+  UserSummaryCache(UserRepository userRepository, long maxSize, long ttlSeconds, Ticker ticker) {
+    this.userRepository = userRepository;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+        .ticker(ticker)
+        .recordStats()
+        .build();
+  }
+
+  // 캐시에 없으면 DB 조회 후 적재, 없는 유저면 NOT_FOUND_USER
+  public UserSummary get(Long userId) {
+    if (userId == null) {
+      throw new CustomException(ErrorCode.NOT_FOUND_USER);
+    }
+    // 없는 유저는 캐시에 남기지 않는다 (get 안에서 예외 -> 적재 안 됨)
+    return cache.get(userId, id -> userRepository.findById(id)
+        .map(UserSummary::from)
+        .orElseThrow(() -> new CustomException(ErrorCode.NOT_FOUND_USER)));
+  }
+
+  public void evict(Long userId) {
+    cache.invalidate(userId);
+  }
+
+  // 적중/미스 통계
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  public long size() {
+    return cache.estimatedSize();
+  }
+
+  // 지표 등록용
+  public Cache<Long, UserSummary> cache() {
+    return cache;
+  }
+}
@@ -4,13 +4,17 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
 import project.newchat.chatroom.domain.ChatRoom;
+import project.newchat.common.id.ChatIdentifierGenerator;
 import project.newchat.user.domain.User;
 
 import javax.persistence.*;
 
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+    name = "uk_user_chat_room_user_room", columnNames = {"user_id", "chat_room_id"}))
 @Getter
 @Builder
 @NoArgsConstructor
@@ -18,7 +22,8 @@ import javax.persistence.*;
 public class UserChatRoom {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = ChatIdentifierGenerator.NAME)
+  @GenericGenerator(name = ChatIdentifierGenerator.NAME, strategy = ChatIdentifierGenerator.STRATEGY)
   @Column(name = "user_chat_room_id")
   private Long id;
 
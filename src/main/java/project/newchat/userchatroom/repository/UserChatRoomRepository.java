@@ -5,6 +5,7 @@ import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
@@ -21,10 +22,21 @@ public interface UserChatRoomRepository extends JpaRepository<UserChatRoom, Long
   @Query("select count(*) from UserChatRoom u where u.chatRoom.id = :roomId")
   Long countNonLockByChatRoomId(@Param("roomId")Long roomId); // test 용도
 
-  void deleteUserChatRoomByChatRoom_Id(Long chatRoomId);
+  // (user, room) 유니크 인덱스로 한 건만 삭제, 삭제된 행 수 반환
+  @Modifying(flushAutomatically = true)
+  @Query("delete from UserChatRoom u where u.user.id = :userId and u.chatRoom.id = :roomId")
+  int deleteByUserIdAndChatRoomId(@Param("userId") Long userId, @Param("roomId") Long roomId);
 
-  void deleteUserChatRoomByUserId(Long userId);
+  // 삭제 표시된 방의 참여 정보는 정리 전이라도 참여로 보지 않는다.
+  @Query("select count(u) > 0 from UserChatRoom u join u.chatRoom c "
+      + "where u.user.id = ?1 and c.id = ?2 and c.deleted = false")
+  boolean existsByUserIdAndChatRoomId(Long userId, Long chatRoomId);
 
-  @Query("select u.user.id from UserChatRoom u where u.chatRoom.id = ?1")
+  @Query("select u.user.id from UserChatRoom u join u.chatRoom c "
+      + "where c.id = ?1 and c.deleted = false")
   List<Long> findUserChatRoomByChatRoom_Id(Long chatRoomId);
+
+  @Query("select c.id from UserChatRoom u join u.chatRoom c "
+      + "where u.user.id = ?1 and c.deleted = false")
+  List<Long> findChatRoomIdByUserId(Long userId);
 }
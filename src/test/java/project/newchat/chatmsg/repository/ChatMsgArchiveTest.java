@@ -0,0 +1,113 @@
+package project.newchat.chatmsg.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import project.newchat.chatmsg.dto.ChatMsgDto;
+
+class ChatMsgArchiveTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  @DisplayName("여러 블록/세그먼트에 걸친 메시지를 ID 순으로 조회하고, 다시 열어도 같은 결과")
+  void appendAndRead_acrossSegments() {
+    ChatMsgArchive archive = archive();
+    archive.append(1L, msgs(1, 50));
+    archive.append(1L, msgs(51, 100));
+
+    assertThat(archive.watermark(1L)).isEqualTo(100L);
+    assertThat(ids(archive.findAfter(1L, 0L, 5))).containsExactly(1L, 2L, 3L, 4L, 5L);
+    assertThat(ids(archive.findAfter(1L, 47L, 6))).containsExactly(48L, 49L, 50L, 51L, 52L, 53L);
+    assertThat(ids(archive.findBefore(1L, 53L, 4))).containsExactly(52L, 51L, 50L, 49L);
+    assertThat(archive.findAfter(1L, 100L, 10)).isEmpty();
+    assertThat(archive.findBefore(1L, 3L, 10)).hasSize(2);
+
+    ChatMsgArchive reopened = archive();
+    assertThat(reopened.watermark(1L)).isEqualTo(100L);
+    ChatMsgDto chatMsg = reopened.findAfter(1L, 41L, 1).get(0);
+    assertThat(chatMsg.getChatMsgId()).isEqualTo(42L);
+    assertThat(chatMsg.getNickname()).isEqualTo("닉네임");
+    assertThat(chatMsg.getMessage()).isEqualTo("메시지 42");
+    assertThat(chatMsg.getSendTime()).isEqualTo(LocalDateTime.of(2023, 1, 1, 0, 0).plusSeconds(42));
+  }
+
+  @Test
+  @DisplayName("같은 세그먼트에 이어서 추가한 블록도 다음 조회에서 읽힌다")
+  void appendAfterRead_sameSegment() throws IOException {
+    ChatMsgArchive archive = new ChatMsgArchive(dir.toString(), 4, 1 << 20, 10);
+    archive.append(1L, msgs(1, 10));
+    assertThat(ids(archive.findAfter(1L, 0L, 100))).hasSize(10).endsWith(10L);
+
+    archive.append(1L, msgs(11, 30));
+    assertThat(segments(1L)).hasSize(1);
+    assertThat(ids(archive.findAfter(1L, 0L, 100))).hasSize(30).endsWith(30L);
+    assertThat(ids(archive.findBefore(1L, Long.MAX_VALUE, 3))).containsExactly(30L, 29L, 28L);
+  }
+
+  @Test
+  @DisplayName("쓰다 만 마지막 블록은 무시하고 다음 추가 때 덮어쓴다")
+  void truncatedTail_ignored() throws IOException {
+    archive().append(1L, msgs(1, 20));
+    List<Path> segments = segments(1L);
+    Path segment = segments.get(segments.size() - 1);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+
+    ChatMsgArchive reopened = archive();
+    assertThat(reopened.watermark(1L)).isEqualTo(16L);
+    reopened.append(1L, msgs(17, 30));
+    assertThat(ids(archive().findAfter(1L, 0L, 100))).hasSize(30).endsWith(30L);
+  }
+
+  @Test
+  @DisplayName("아카이브가 없는 방은 watermark 0, 방 삭제 시 파일도 삭제")
+  void emptyAndDeleteRoom() {
+    ChatMsgArchive archive = archive();
+    assertThat(archive.watermark(2L)).isZero();
+    assertThat(archive.findBefore(2L, Long.MAX_VALUE, 10)).isEmpty();
+
+    archive.append(2L, msgs(1, 10));
+    archive.deleteRoom(2L);
+    assertThat(Files.exists(dir.resolve("2"))).isFalse();
+    assertThat(archive.watermark(2L)).isZero();
+  }
+
+  // 블록 4건, 세그먼트는 약 200바이트마다 교체
+  private ChatMsgArchive archive() {
+    return new ChatMsgArchive(dir.toString(), 4, 200, 10);
+  }
+
+  private List<Path> segments(Long roomId) throws IOException {
+    try (Stream<Path> files = Files.list(dir.resolve(String.valueOf(roomId)))) {
+      return files.sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static List<ChatMsgDto> msgs(long from, long to) {
+    List<ChatMsgDto> chatMsgs = new ArrayList<>();
+    for (long id = from; id <= to; id++) {
+      chatMsgs.add(new ChatMsgDto(id, 1L, "닉네임", "메시지 " + id,
+          LocalDateTime.of(2023, 1, 1, 0, 0).plusSeconds(id)));
+    }
+    return chatMsgs;
+  }
+
+  private static List<Long> ids(List<ChatMsgDto> chatMsgs) {
+    return chatMsgs.stream().map(ChatMsgDto::getChatMsgId).collect(Collectors.toList());
+  }
+}
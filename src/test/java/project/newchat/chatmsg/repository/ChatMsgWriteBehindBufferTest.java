@@ -0,0 +1,56 @@
+package project.newchat.chatmsg.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.newchat.chatmsg.repository.ChatMsgWriteBehindBuffer.PendingChatMsg;
+import project.newchat.common.metrics.ChatMetrics;
+
+class ChatMsgWriteBehindBufferTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  @DisplayName("건별 재시도도 실패한 메시지는 버리지 않고 dead-letter 파일에 남긴다")
+  void failedRow_deadLetter() throws Exception {
+    JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    when(jdbcTemplate.update(anyString(), (Object[]) any()))
+        .thenThrow(new DataIntegrityViolationException("fk"));
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    Path deadLetter = dir.resolve("dead-letter.jsonl");
+    ChatMsgWriteBehindBuffer buffer = new ChatMsgWriteBehindBuffer(jdbcTemplate,
+        new TransactionTemplate(mock(PlatformTransactionManager.class)),
+        new ChatMetrics(registry), objectMapper, 10, 10, 50, deadLetter.toString());
+
+    buffer.append(new PendingChatMsg(1L, 10L, 100L, "첫 메시지", LocalDateTime.now()));
+    buffer.append(new PendingChatMsg(2L, 10L, 100L, "두 번째", LocalDateTime.now()));
+    buffer.shutdown(); // 저장 스레드 없이 남은 메시지를 호출 스레드에서 저장
+
+    List<String> lines = Files.readAllLines(deadLetter);
+    assertThat(lines).hasSize(2);
+    JsonNode first = objectMapper.readTree(lines.get(0));
+    assertThat(first.get("id").asLong()).isEqualTo(1L);
+    assertThat(first.get("roomId").asLong()).isEqualTo(10L);
+    assertThat(first.get("message").asText()).isEqualTo("첫 메시지");
+    assertThat(registry.get("chat.msg.persist.dead.letter").counter().count()).isEqualTo(2);
+  }
+}
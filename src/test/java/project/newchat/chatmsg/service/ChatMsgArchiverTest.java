@@ -0,0 +1,105 @@
+package project.newchat.chatmsg.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import project.newchat.chatmsg.dto.ChatMsgDto;
+import project.newchat.chatmsg.repository.ChatMsgCustomRepository;
+import project.newchat.chatroom.domain.ChatRoom;
+import project.newchat.chatroom.repository.ChatRoomRepository;
+import project.newchat.common.routing.RoomRouter;
+import project.newchat.user.domain.User;
+import project.newchat.user.domain.request.UserRequest;
+import project.newchat.user.service.UserService;
+
+@SpringBootTest
+class ChatMsgArchiverTest {
+
+  @TempDir
+  static Path archiveDir;
+
+  @DynamicPropertySource
+  static void archiveProperties(DynamicPropertyRegistry registry) {
+    registry.add("chat.msg.archive.dir", archiveDir::toString);
+    registry.add("chat.msg.archive.chunk-size", () -> 7);
+    registry.add("chat.msg.archive.block-size", () -> 4);
+  }
+
+  @Autowired
+  private ChatMsgArchiver chatMsgArchiver;
+
+  @Autowired
+  private ChatMsgCustomRepository chatMsgCustomRepository;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private ChatRoomRepository chatRoomRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  @DisplayName("오래된 메시지는 아카이브로 옮겨지고, 조회는 아카이브와 chat_msg 를 이어서 반환")
+  void archive_thenReadAcrossBoundary() {
+    User user = userService.signUpTest(new UserRequest("archive@test.com", "1234", "archiver"));
+    ChatRoom room = chatRoomRepository.save(ChatRoom.builder()
+        .roomCreator(user.getId()).title("archive").userCountMax(8).build());
+    Long roomId = room.getId();
+    LocalDateTime now = LocalDateTime.now();
+    // 1 ~ 20: 60일 전, 21 ~ 30: 최근
+    for (long i = 1; i <= 30; i++) {
+      LocalDateTime sendTime = i <= 20 ? now.minusDays(60).plusSeconds(i) : now.plusSeconds(i);
+      jdbcTemplate.update("insert into chat_msg (chat_msg_id, chat_room_id, user_id, message, "
+              + "send_time) values (?, ?, ?, ?, ?)",
+          roomId + i, roomId, user.getId(), "m" + i, Timestamp.valueOf(sendTime));
+    }
+
+    chatMsgArchiver.archive(now.minusDays(30));
+
+    assertThat(jdbcTemplate.queryForObject(
+        "select count(*) from chat_msg where chat_room_id = ?", Long.class, roomId)).isEqualTo(10);
+    assertThat(messages(chatMsgCustomRepository.findChatRoomIdByChatMsg(roomId, roomId + 17, 6)))
+        .containsExactly("m18", "m19", "m20", "m21", "m22", "m23");
+    assertThat(messages(chatMsgCustomRepository.findChatRoomIdByChatMsgBefore(roomId, roomId + 23, 5)))
+        .containsExactly("m22", "m21", "m20", "m19", "m18");
+    assertThat(messages(chatMsgCustomRepository.findChatRoomIdByChatMsgBefore(roomId, null, 12)))
+        .hasSize(12).startsWith("m30").endsWith("m19");
+    assertThat(messages(chatMsgCustomRepository.findChatRoomIdByChatMsg(roomId, null, 3)))
+        .containsExactly("m1", "m2", "m3");
+
+    // 다시 실행해도 옮길 메시지가 없다.
+    chatMsgArchiver.archive(now.minusDays(30));
+    assertThat(chatMsgCustomRepository.findChatRoomIdByChatMsg(roomId, null, 100)).hasSize(30);
+  }
+
+  private static List<String> messages(List<ChatMsgDto> chatMsgs) {
+    return chatMsgs.stream().map(ChatMsgDto::getMessage).collect(Collectors.toList());
+  }
+
+  @Test
+  @DisplayName("여러 서버로 라우팅하면 아카이브를 켠 채로는 기동하지 않는다")
+  void multiNode_refused() {
+    RoomRouter router = new RoomRouter(List.of("ws://chat-1:8080", "ws://chat-2:8080"),
+        "ws://chat-1:8080", 160);
+
+    assertThatThrownBy(() -> new ChatMsgArchiver(jdbcTemplate, null, null, router,
+        true, 30, 1000, 3600000)).isInstanceOf(IllegalStateException.class);
+    assertThat(new ChatMsgArchiver(jdbcTemplate, null, null, router,
+        false, 30, 1000, 3600000)).isNotNull();
+  }
+}
@@ -0,0 +1,227 @@
+package project.newchat.chatmsg.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.newchat.chatmsg.domain.request.ChatMsgRequest;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+import project.newchat.chatmsg.dto.ChatMsgDto;
+import project.newchat.chatmsg.dto.ChatMsgSearchDto;
+import project.newchat.chatroom.domain.ChatRoom;
+import project.newchat.chatroom.repository.ChatRoomRepository;
+import project.newchat.chatroom.service.ChatRoomService;
+import project.newchat.chatroom.service.RoomMembershipIndex;
+import project.newchat.common.broadcast.ChatBroadcastBus;
+import project.newchat.common.broadcast.InMemoryPubSubBroker;
+import project.newchat.common.broadcast.PubSubBroker;
+import project.newchat.common.broadcast.PubSubChatBroadcastBus;
+import project.newchat.common.exception.CustomException;
+import project.newchat.common.id.IdGenerator;
+import project.newchat.common.type.ChatEnvelopeType;
+import project.newchat.common.type.ErrorCode;
+import project.newchat.user.domain.User;
+import project.newchat.user.domain.request.UserRequest;
+import project.newchat.user.service.UserService;
+import project.newchat.userchatroom.domain.UserChatRoom;
+import project.newchat.userchatroom.repository.UserChatRoomRepository;
+
+/**
+ * 이 컨텍스트를 서버 B 로, 같은 브로커에 연결한 버스 하나를 서버 A 로 두고
+ * A 에서 보낸 메시지/이벤트가 B 의 이력 조회, 검색, 참여자 인덱스에 반영되는지 확인한다.
+ */
+@SpringBootTest(properties = "chat.msg.search.tail-lag-ms=0")
+class ChatMsgMultiNodeTest {
+
+  private static final InMemoryPubSubBroker BROKER = new InMemoryPubSubBroker();
+
+  @TestConfiguration
+  static class BrokerConfig {
+
+    @Bean
+    PubSubBroker pubSubBroker() {
+      return BROKER.connect();
+    }
+  }
+
+  @Autowired
+  private ChatMsgService chatMsgService;
+
+  @Autowired
+  private ChatMsgSearchIndex chatMsgSearchIndex;
+
+  @Autowired
+  private ChatBroadcastBus chatBroadcastBus;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private ChatRoomRepository chatRoomRepository;
+
+  @Autowired
+  private UserChatRoomRepository userChatRoomRepository;
+
+  @Autowired
+  private ChatRoomService chatRoomService;
+
+  @Autowired
+  private RoomMembershipIndex roomMembershipIndex;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private IdGenerator idGenerator;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private PubSubChatBroadcastBus nodeA;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    if (nodeA != null) {
+      nodeA.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("다른 서버에서 보낸 메시지도 이력 조회와 검색에 나온다")
+  void remoteMessage_inHistoryAndSearch() throws InterruptedException {
+    nodeA = new PubSubChatBroadcastBus(BROKER.connect(), objectMapper, 100, 10, 5, 1000);
+    nodeA.start();
+    User user = userService.signUpTest(new UserRequest(
+        "mn" + System.nanoTime() % 1_000_000 + "@t.com", "1234", "multi"));
+    ChatRoom room = chatRoomRepository.save(ChatRoom.builder()
+        .roomCreator(user.getId())
+        .title("multi")
+        .userCountMax(8)
+        .build());
+    userChatRoomRepository.save(UserChatRoom.builder().user(user).chatRoom(room).build());
+    Long roomId = room.getId();
+    List<ChatEnvelope> received = new CopyOnWriteArrayList<>();
+    chatBroadcastBus.subscribe(roomId, received::add);
+
+    // B 에서 먼저 보내서 B 의 최근 메시지가 만들어진 뒤
+    long first = chatMsgService.sendMessage(new ChatMsgRequest("먼저 보낸 메시지"),
+        user.getId(), roomId).getChatMsgId();
+    // A 에서 저장하고 발행
+    long remote = idGenerator.nextId();
+    LocalDateTime sendTime = LocalDateTime.now();
+    jdbcTemplate.update("insert into chat_msg (chat_msg_id, chat_room_id, user_id, message, "
+        + "send_time) values (?, ?, ?, ?, ?)", remote, roomId, user.getId(), "원격 서버 메시지",
+        sendTime);
+    nodeA.publish(ChatEnvelope.builder()
+        .messageId(remote)
+        .roomId(roomId)
+        .senderId(user.getId())
+        .from("multi")
+        .message("원격 서버 메시지")
+        .sendTime(sendTime)
+        .build());
+    await(() -> received.stream().anyMatch(envelope -> envelope.getMessageId() == remote));
+    // 다시 B 에서 보낸다.
+    long last = chatMsgService.sendMessage(new ChatMsgRequest("나중에 보낸 메시지"),
+        user.getId(), roomId).getChatMsgId();
+
+    await(() -> ids(chatMsgService.getRoomChatMsgList(roomId, user.getId(), null, null, 10))
+        .size() == 3);
+    assertThat(ids(chatMsgService.getRoomChatMsgList(roomId, user.getId(), null, null, 10)))
+        .containsExactly(last, remote, first);
+    assertThat(ids(chatMsgService.getRoomChatMsgList(roomId, user.getId(), first, null, 10)))
+        .containsExactly(remote, last);
+
+    chatMsgSearchIndex.tail();
+    assertThat(chatMsgService.searchRoomChatMsg(roomId, user.getId(), "원격", null, 10))
+        .extracting(ChatMsgSearchDto::getChatMsgId)
+        .containsExactly(remote);
+  }
+
+  @Test
+  @DisplayName("다른 서버의 퇴장/방 삭제가 이 서버의 참여자 인덱스와 방 캐시에 반영된다")
+  void remoteLeaveAndDelete_applied() throws InterruptedException {
+    nodeA = new PubSubChatBroadcastBus(BROKER.connect(), objectMapper, 100, 10, 5, 1000);
+    nodeA.start();
+    List<ChatEnvelope> eventsOnA = new CopyOnWriteArrayList<>();
+    nodeA.subscribeEvents(eventsOnA::add);
+    User owner = userService.signUpTest(new UserRequest(
+        "mo" + System.nanoTime() % 1_000_000 + "@t.com", "1234", "owner"));
+    User member = userService.signUpTest(new UserRequest(
+        "mm" + System.nanoTime() % 1_000_000 + "@t.com", "1234", "member"));
+    ChatRoom room = chatRoomRepository.save(ChatRoom.builder()
+        .roomCreator(owner.getId())
+        .title("multi")
+        .userCountMax(8)
+        .build());
+    userChatRoomRepository.save(UserChatRoom.builder().user(owner).chatRoom(room).build());
+    userChatRoomRepository.save(UserChatRoom.builder().user(member).chatRoom(room).build());
+    Long roomId = room.getId();
+    chatMsgService.sendMessage(new ChatMsgRequest("삭제될 방"), owner.getId(), roomId);
+    assertThat(roomMembershipIndex.contains(roomId, member.getId())).isTrue();
+
+    // A 에서 퇴장
+    jdbcTemplate.update("delete from user_chat_room where user_id = ? and chat_room_id = ?",
+        member.getId(), roomId);
+    nodeA.publish(ChatEnvelope.builder()
+        .messageId(idGenerator.nextId())
+        .roomId(roomId)
+        .senderId(member.getId())
+        .type(ChatEnvelopeType.LEAVE)
+        .build());
+    await(() -> !roomMembershipIndex.contains(roomId, member.getId()));
+    assertThatThrownBy(() -> chatMsgService.getRoomChatMsgList(roomId, member.getId(), null,
+        null, 10))
+        .isInstanceOf(CustomException.class)
+        .extracting("errorCode")
+        .isEqualTo(ErrorCode.NOT_ROOM_MEMBER);
+
+    // A 에서 방 삭제
+    jdbcTemplate.update("update chat_room set deleted = true where chat_room_id = ?", roomId);
+    nodeA.publish(ChatEnvelope.builder()
+        .messageId(idGenerator.nextId())
+        .roomId(roomId)
+        .type(ChatEnvelopeType.ROOM_DELETED)
+        .build());
+    await(() -> chatMsgSearchIndex.search(roomId, Set.of("삭제"), null, 10).length == 0);
+    assertThat(chatMsgSearchIndex.search(roomId, Set.of("삭제"), null, 10)).isEmpty();
+
+    // B 에서 방 삭제 -> A 에도 전달
+    ChatRoom other = chatRoomRepository.save(ChatRoom.builder()
+        .roomCreator(owner.getId())
+        .title("other")
+        .userCountMax(8)
+        .build());
+    chatRoomService.deleteRoom(owner.getId(), other.getId());
+    await(() -> eventsOnA.stream().anyMatch(e -> e.getType() == ChatEnvelopeType.ROOM_DELETED
+        && e.getRoomId().equals(other.getId())));
+    assertThat(eventsOnA).extracting(ChatEnvelope::getType, ChatEnvelope::getRoomId)
+        .contains(tuple(ChatEnvelopeType.ROOM_DELETED, other.getId()));
+  }
+
+  private static List<Long> ids(List<ChatMsgDto> chatMsgs) {
+    return chatMsgs.stream().map(ChatMsgDto::getChatMsgId).collect(Collectors.toList());
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+}
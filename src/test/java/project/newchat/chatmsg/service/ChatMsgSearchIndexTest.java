@@ -0,0 +1,114 @@
+package project.newchat.chatmsg.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.newchat.chatmsg.repository.ChatMsgArchive;
+import project.newchat.common.metrics.ChatMetrics;
+
+class ChatMsgSearchIndexTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  // 저장소가 비어 있어 검색 시 load 로 채워지는 메시지는 없다.
+  private final ChatMsgSearchIndex index = index(meterRegistry, 10, 1_000_000L);
+
+  @Test
+  @DisplayName("한글은 1-gram + 2-gram, 영어/숫자는 소문자 단어로 분리")
+  void tokens() {
+    assertThat(ChatMsgTokenizer.tokens("채팅방 Hello, World2!"))
+        .containsExactly("채", "채팅", "팅", "팅방", "방", "hello", "world2");
+    assertThat(ChatMsgTokenizer.tokens("!!! ...")).isEmpty();
+    assertThat(ChatMsgTokenizer.cjkPhrases("채팅방 안녕 hi")).containsExactly("채팅방");
+  }
+
+  @Test
+  @DisplayName("모든 토큰을 포함한 메시지만 최신순으로, beforeId 이전부터 limit 개")
+  void search_intersectsNewestFirst() {
+    index.add(1L, 10L, "오늘 채팅방에서 만나요");
+    index.add(1L, 20L, "hello 채팅");
+    index.add(1L, 30L, "채팅방 HELLO");
+    index.add(1L, 25L, "채팅방 공지");
+    index.add(2L, 40L, "채팅방 hello");
+
+    Set<String> chatRoom = ChatMsgTokenizer.tokens("채팅방");
+    assertThat(index.search(1L, chatRoom, null, 10)).containsExactly(30L, 25L, 10L);
+    assertThat(index.search(1L, chatRoom, 30L, 1)).containsExactly(25L);
+    assertThat(index.search(1L, ChatMsgTokenizer.tokens("Hello 채팅방"), null, 10))
+        .containsExactly(30L);
+    assertThat(index.search(1L, ChatMsgTokenizer.tokens("없는단어"), null, 10)).isEmpty();
+    assertThat(index.search(3L, chatRoom, null, 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("같은 메시지를 다시 추가해도 한 번만 색인되고, 방 삭제 시 함께 제거")
+  void add_duplicateIgnored_removeRoom() {
+    index.add(1L, 10L, "hello");
+    index.add(1L, 10L, "hello");
+    index.add(1L, 5L, "hello");
+
+    assertThat(index.search(1L, Set.of("hello"), null, 10)).containsExactly(10L, 5L);
+
+    index.removeRoom(1L);
+    assertThat(index.search(1L, Set.of("hello"), null, 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("방마다 최근 max-messages-per-room 개만 색인하고, 뺀 메시지는 다시 추가되지 않는다")
+  void add_keepsRecentWindow() {
+    for (long id = 1; id <= 25; id++) {
+      index.add(1L, id, "hello 공지" + id);
+    }
+    index.add(1L, 3L, "hello");
+
+    long[] found = index.search(1L, Set.of("hello"), null, 100);
+    assertThat(found).hasSizeLessThanOrEqualTo(10).contains(25L, 20L);
+    assertThat(found[found.length - 1]).isGreaterThan(15L);
+    // 메시지당 hello, 공, 공지, 지, 숫자 단어
+    assertThat(meterRegistry.get("chat.msg.search.postings").gauge().value())
+        .isEqualTo(found.length * 5.0);
+  }
+
+  @Test
+  @DisplayName("전체 posting 이 max-postings 를 넘으면 가장 오래 사용되지 않은 방부터 버린다")
+  void add_overBudget_evictsIdleRoom() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ChatMsgSearchIndex small = index(registry, 10, 12L);
+    for (long id = 1; id <= 5; id++) {
+      small.add(1L, id, "hello");
+      small.add(2L, 10 + id, "hello");
+    }
+    // 1번 방을 검색해서 2번 방이 가장 오래 사용되지 않은 방이 됨
+    assertThat(small.search(1L, Set.of("hello"), null, 10)).hasSize(5);
+
+    for (long id = 1; id <= 5; id++) {
+      small.add(3L, 20 + id, "hello");
+    }
+
+    assertThat(small.isIndexed(1L)).isTrue();
+    assertThat(small.isIndexed(2L)).isFalse();
+    assertThat(small.isIndexed(3L)).isTrue();
+    assertThat(registry.get("chat.msg.search.postings").gauge().value()).isEqualTo(10.0);
+    assertThat(registry.get("chat.msg.search.rooms").gauge().value()).isEqualTo(2.0);
+  }
+
+  @Test
+  @DisplayName("max-messages-per-room 이 1 보다 작으면 생성 시 거절")
+  void maxMessagesPerRoom_belowOne_rejected() {
+    assertThatThrownBy(() -> index(new SimpleMeterRegistry(), 0, 1_000_000L))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static ChatMsgSearchIndex index(SimpleMeterRegistry registry, int maxMessagesPerRoom,
+      long maxPostings) {
+    return new ChatMsgSearchIndex(mock(JdbcTemplate.class), mock(ChatMsgArchive.class),
+        new ChatMetrics(registry), 1000, maxMessagesPerRoom, maxPostings, false, 1000L,
+        5000L);
+  }
+}
@@ -1,18 +1,35 @@
 package project.newchat.chatmsg.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 import project.newchat.chatmsg.domain.request.ChatMsgRequest;
 import project.newchat.chatmsg.domain.response.ChatMsgResponse;
+import project.newchat.chatmsg.dto.ChatMsgSearchDto;
+import project.newchat.chatmsg.repository.ChatMsgArchive;
 import project.newchat.chatroom.domain.ChatRoom;
 import project.newchat.chatroom.repository.ChatRoomRepository;
+import project.newchat.common.exception.CustomException;
+import project.newchat.common.metrics.ChatMetrics;
+import project.newchat.common.type.ErrorCode;
+import project.newchat.user.domain.User;
 import project.newchat.user.domain.request.UserRequest;
+import project.newchat.user.repository.UserRepository;
 import project.newchat.user.service.UserService;
+import project.newchat.user.service.UserSummaryCache;
+import project.newchat.userchatroom.domain.UserChatRoom;
+import project.newchat.userchatroom.repository.UserChatRoomRepository;
 
 @SpringBootTest
 @Transactional
@@ -27,25 +44,107 @@ class ChatMsgServiceImplTest {
   @Autowired
   private ChatRoomRepository chatRoomRepository;
 
+  @Autowired
+  private UserChatRoomRepository userChatRoomRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ChatMsgArchive chatMsgArchive;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private UserSummaryCache userSummaryCache;
+
+  // 롤백된 유저 ID 는 H2 가 다른 테스트의 유저에게 다시 발급하므로 캐시에서 뺀다. (롤백 전에 실행됨)
+  @AfterEach
+  void evictUsers() {
+    userRepository.findAll().forEach(user -> userSummaryCache.evict(user.getId()));
+  }
 
   @Test
   @DisplayName("채팅 보내기")
   void sendMsg_success() {
     UserRequest user = new UserRequest("test@test.com", "1234", "test");
-    userService.signUpTest(user);
+    User saveUser = userService.signUpTest(user);
 
     ChatRoom test = ChatRoom.builder()
-        .roomCreator(1L)
+        .roomCreator(saveUser.getId())
         .title("test")
         .userCountMax(8)
         .build();
-    chatRoomRepository.save(test);
+    ChatRoom save = chatRoomRepository.save(test);
+    userChatRoomRepository.save(UserChatRoom.builder().user(saveUser).chatRoom(save).build());
 
     ChatMsgRequest message = new ChatMsgRequest("test");
 
-    ChatMsgResponse chatMsgResponse = chatMsgService.sendMessage(message, 1L, 1L);
+    ChatMsgResponse chatMsgResponse = chatMsgService.sendMessage(message, saveUser.getId(), save.getId());
     assertThat(chatMsgResponse.getMessage()).isEqualTo("test");
     assertThat(chatMsgResponse.getFrom()).isEqualTo("test");
-    assertThat(chatMsgResponse.getRoomId()).isEqualTo(1L);
+    assertThat(chatMsgResponse.getRoomId()).isEqualTo(save.getId());
+  }
+
+  @Test
+  @DisplayName("메시지 검색: 방 안/참여 중인 방 전체, 최신순")
+  void searchMsg_success() {
+    User saveUser = userService.signUpTest(new UserRequest("search@test.com", "1234", "search"));
+    ChatRoom room1 = joinNewRoom(saveUser);
+    ChatRoom room2 = joinNewRoom(saveUser);
+
+    ChatMsgResponse first = chatMsgService
+        .sendMessage(new ChatMsgRequest("오늘 채팅방에서 만나요"), saveUser.getId(), room1.getId());
+    chatMsgService.sendMessage(new ChatMsgRequest("채팅 방 아님"), saveUser.getId(), room1.getId());
+    ChatMsgResponse second = chatMsgService
+        .sendMessage(new ChatMsgRequest("Hello 채팅방"), saveUser.getId(), room2.getId());
+
+    List<ChatMsgSearchDto> inRoom = chatMsgService
+        .searchRoomChatMsg(room1.getId(), saveUser.getId(), "채팅방", null, null);
+    assertThat(inRoom).extracting(ChatMsgSearchDto::getChatMsgId)
+        .containsExactly(first.getChatMsgId());
+
+    List<ChatMsgSearchDto> all = chatMsgService
+        .searchMyChatMsg(saveUser.getId(), "채팅방", null, null);
+    assertThat(all).extracting(ChatMsgSearchDto::getChatMsgId)
+        .containsExactly(second.getChatMsgId(), first.getChatMsgId());
+    assertThat(all.get(0).getRoomId()).isEqualTo(room2.getId());
+
+    assertThat(chatMsgService.searchMyChatMsg(saveUser.getId(), "hello", null, null))
+        .extracting(ChatMsgSearchDto::getMessage).containsExactly("Hello 채팅방");
+    assertThatThrownBy(() -> chatMsgService.searchMyChatMsg(saveUser.getId(), "!!", null, null))
+        .isInstanceOf(CustomException.class)
+        .extracting("errorCode").isEqualTo(ErrorCode.INVALID_SEARCH_QUERY);
+  }
+
+  @Test
+  @DisplayName("색인되지 않은 방은 검색할 때 최근 max-messages-per-room 개만 읽는다")
+  void searchIndex_loadRecentWindow() {
+    User saveUser = userService.signUpTest(new UserRequest("window@test.com", "1234", "window"));
+    ChatRoom room = chatRoomRepository.saveAndFlush(ChatRoom.builder()
+        .roomCreator(saveUser.getId())
+        .title("window")
+        .userCountMax(8)
+        .build());
+    for (long id = 1; id <= 5; id++) {
+      jdbcTemplate.update("insert into chat_msg (chat_msg_id, chat_room_id, user_id, message, "
+          + "send_time) values (?, ?, ?, ?, ?)", id, room.getId(), saveUser.getId(), "window " + id,
+          LocalDateTime.now());
+    }
+    ChatMsgSearchIndex index = new ChatMsgSearchIndex(jdbcTemplate, chatMsgArchive,
+        new ChatMetrics(new SimpleMeterRegistry()), 2, 3, 1_000_000L, false, 1000L, 0L);
+
+    assertThat(index.search(room.getId(), Set.of("window"), null, 10)).containsExactly(5L, 4L, 3L);
+  }
+
+  private ChatRoom joinNewRoom(User user) {
+    ChatRoom room = chatRoomRepository.save(ChatRoom.builder()
+        .roomCreator(user.getId())
+        .title("search")
+        .userCountMax(8)
+        .build());
+    userChatRoomRepository.save(UserChatRoom.builder().user(user).chatRoom(room).build());
+    return room;
   }
-}
\ No newline at end of file
+}
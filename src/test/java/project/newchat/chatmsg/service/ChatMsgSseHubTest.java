@@ -0,0 +1,222 @@
+package project.newchat.chatmsg.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+import project.newchat.chatmsg.dto.ChatMsgDto;
+import project.newchat.chatroom.service.RoomMembershipIndex;
+import project.newchat.common.broadcast.InProcessChatBroadcastBus;
+import project.newchat.common.type.ChatEnvelopeType;
+
+class ChatMsgSseHubTest {
+
+  private final ChatMsgService chatMsgService = mock(ChatMsgService.class);
+
+  private final InProcessChatBroadcastBus bus = new InProcessChatBroadcastBus();
+
+  private ChatMsgSseHub hub;
+
+  @AfterEach
+  void tearDown() {
+    hub.shutdown();
+  }
+
+  @Test
+  @DisplayName("replay 중에 들어온 새 메시지는 replay 이후 중복 없이 이어서 전송")
+  void replayThenLive_noDuplicates() throws InterruptedException {
+    hub = hub(256, 1000);
+    // replay 로 2, 3 을 읽는 사이에 3, 4 가 발행됨
+    when(chatMsgService.getRoomChatMsgList(eq(1L), eq(10L), eq(1L), isNull(), anyInt()))
+        .thenAnswer(invocation -> {
+          bus.publish(message(3L));
+          bus.publish(message(4L));
+          return List.of(chatMsg(2L), chatMsg(3L));
+        });
+    RecordingEmitter emitter = new RecordingEmitter();
+
+    hub.subscribe(1L, 10L, 1L, emitter);
+    bus.publish(message(5L));
+
+    await(() -> emitter.ids().size() >= 4);
+    Thread.sleep(50);
+    assertThat(emitter.ids()).containsExactly(2L, 3L, 4L, 5L);
+    assertThat(emitter.completed).isFalse();
+  }
+
+  @Test
+  @DisplayName("ID 순서가 뒤바뀌어 발행된 새 메시지도 모두 전송")
+  void liveOutOfOrder_sendsAll() throws InterruptedException {
+    hub = hub(256, 1000);
+    when(chatMsgService.getRoomChatMsgList(eq(1L), eq(10L), eq(1L), isNull(), anyInt()))
+        .thenReturn(List.of(chatMsg(2L), chatMsg(3L)));
+    RecordingEmitter replayed = new RecordingEmitter();
+    RecordingEmitter live = new RecordingEmitter();
+    hub.subscribe(1L, 10L, 1L, replayed);
+    hub.subscribe(1L, 20L, null, live);
+
+    bus.publish(message(6L));
+    bus.publish(message(5L));
+
+    await(() -> replayed.ids().size() >= 4 && live.ids().size() >= 2);
+    assertThat(replayed.ids()).containsExactly(2L, 3L, 6L, 5L);
+    assertThat(live.ids()).containsExactly(6L, 5L);
+  }
+
+  @Test
+  @DisplayName("replay 가 buffer-size 보다 많아도 replay 중에 쌓인 새 메시지로 스트림이 끊기지 않는다")
+  void longReplay_doesNotOverflow() throws InterruptedException {
+    hub = hub(4, 50);
+    // replay 한 페이지(50개)를 읽는 동안 buffer-size 보다 많은 새 메시지가 발행됨
+    when(chatMsgService.getRoomChatMsgList(eq(1L), eq(10L), anyLong(), isNull(), anyInt()))
+        .thenAnswer(invocation -> {
+          LongStream.rangeClosed(51, 60).forEach(id -> bus.publish(message(id)));
+          return LongStream.rangeClosed(1, 50).mapToObj(ChatMsgSseHubTest::chatMsg)
+              .collect(Collectors.toList());
+        });
+    RecordingEmitter emitter = new RecordingEmitter();
+
+    hub.subscribe(1L, 10L, 0L, emitter);
+
+    await(() -> emitter.ids().size() >= 60);
+    assertThat(emitter.ids()).hasSize(60).isSorted();
+    assertThat(emitter.completed).isFalse();
+  }
+
+  @Test
+  @DisplayName("전송이 밀려 buffer-size 를 넘으면 스트림을 종료")
+  void bufferOverflow_completesEmitter() throws InterruptedException {
+    hub = hub(2, 1000);
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingEmitter slow = new RecordingEmitter(release);
+    RecordingEmitter other = new RecordingEmitter();
+    hub.subscribe(1L, 10L, null, slow);
+    hub.subscribe(1L, 20L, null, other);
+
+    // 첫 메시지 전송이 막힌 동안 버퍼(2)를 넘김 (다른 구독자는 한 건씩 받아서 넘치지 않음)
+    for (long id = 1; id <= 4; id++) {
+      bus.publish(message(id));
+      int received = (int) id;
+      await(() -> other.ids().size() >= received);
+    }
+
+    await(() -> slow.completed);
+    release.countDown();
+    assertThat(slow.completed).isTrue();
+    assertThat(other.ids()).containsExactly(1L, 2L, 3L, 4L);
+    assertThat(other.completed).isFalse();
+    assertThat(hub.subscriberCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("퇴장 이벤트는 그 유저의 스트림만 종료")
+  void leave_completesOnlyThatUsersStreams() {
+    hub = hub(256, 1000);
+    RecordingEmitter left1 = new RecordingEmitter();
+    RecordingEmitter left2 = new RecordingEmitter();
+    RecordingEmitter stay = new RecordingEmitter();
+    hub.subscribe(1L, 10L, null, left1);
+    hub.subscribe(1L, 10L, null, left2);
+    hub.subscribe(1L, 20L, null, stay);
+
+    bus.publish(ChatEnvelope.builder()
+        .messageId(100L)
+        .roomId(1L)
+        .senderId(10L)
+        .type(ChatEnvelopeType.LEAVE)
+        .build());
+
+    assertThat(left1.completed).isTrue();
+    assertThat(left2.completed).isTrue();
+    assertThat(stay.completed).isFalse();
+    assertThat(hub.subscriberCount()).isEqualTo(1);
+  }
+
+  private ChatMsgSseHub hub(int bufferSize, int replayMax) {
+    RoomMembershipIndex roomMembershipIndex = mock(RoomMembershipIndex.class);
+    when(roomMembershipIndex.isMember(any(), any())).thenReturn(true);
+    return new ChatMsgSseHub(chatMsgService, bus, roomMembershipIndex, 60_000L, bufferSize,
+        replayMax, 60_000L, 2);
+  }
+
+  private static ChatEnvelope message(long id) {
+    return ChatEnvelope.builder()
+        .messageId(id)
+        .roomId(1L)
+        .senderId(20L)
+        .message("message" + id)
+        .build();
+  }
+
+  private static ChatMsgDto chatMsg(long id) {
+    return new ChatMsgDto(id, 20L, "test", "message" + id, null);
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  /**
+   * 보낸 메시지 ID 와 종료 여부를 기록하는 emitter (release 가 있으면 열릴 때까지 전송이 막힘)
+   */
+  private static class RecordingEmitter extends SseEmitter {
+
+    private final List<ChatEnvelope> sent = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch release;
+
+    private volatile boolean completed;
+
+    RecordingEmitter() {
+      this(new CountDownLatch(0));
+    }
+
+    RecordingEmitter(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+      builder.build().stream()
+          .map(DataWithMediaType::getData)
+          .filter(ChatEnvelope.class::isInstance)
+          .forEach(data -> sent.add((ChatEnvelope) data));
+    }
+
+    @Override
+    public void complete() {
+      completed = true;
+      super.complete();
+    }
+
+    List<Long> ids() {
+      return sent.stream().map(ChatEnvelope::getMessageId).collect(Collectors.toList());
+    }
+  }
+}
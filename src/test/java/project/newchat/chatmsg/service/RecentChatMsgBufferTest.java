@@ -0,0 +1,94 @@
+package project.newchat.chatmsg.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.newchat.chatmsg.dto.ChatMsgDto;
+
+class RecentChatMsgBufferTest {
+
+  @Test
+  @DisplayName("버퍼 구간 안의 lastId 는 버퍼에서, 구간 밖은 null(DB 조회)")
+  void findAfter_insideAndOutsideWindow() {
+    RecentChatMsgBuffer buffer = new RecentChatMsgBuffer(5, 10);
+    // 방의 최근 메시지 5개 (10 ~ 6, 내림차순) -> 이력이 더 있으므로 floor = 5
+    List<ChatMsgDto> latest = new ArrayList<>();
+    for (long id = 10; id >= 6; id--) {
+      latest.add(msg(id));
+    }
+    assertThat(ids(buffer.findAfter(1L, 7L, 10, () -> latest))).containsExactly(8L, 9L, 10L);
+    assertThat(buffer.findAfter(1L, 4L, 10, List::of)).isNull();
+    assertThat(buffer.findAfter(1L, null, 10, List::of)).isNull();
+
+    // 새 메시지가 들어오면 가장 오래된 메시지가 밀려나고 구간이 올라간다.
+    buffer.append(1L, msg(11L));
+    assertThat(buffer.findAfter(1L, 5L, 10, List::of)).isNull();
+    assertThat(ids(buffer.findAfter(1L, 6L, 2, List::of))).containsExactly(7L, 8L);
+  }
+
+  @Test
+  @DisplayName("beforeId 이전 메시지는 최신순으로, 버퍼 앞쪽을 넘어가면 null(DB 조회)")
+  void findBefore_latestFirst() {
+    RecentChatMsgBuffer buffer = new RecentChatMsgBuffer(5, 10);
+    List<ChatMsgDto> latest = new ArrayList<>();
+    for (long id = 10; id >= 6; id--) {
+      latest.add(msg(id));
+    }
+    assertThat(ids(buffer.findBefore(1L, null, 3, () -> latest))).containsExactly(10L, 9L, 8L);
+    assertThat(ids(buffer.findBefore(1L, 9L, 3, List::of))).containsExactly(8L, 7L, 6L);
+    assertThat(buffer.findBefore(1L, 8L, 3, List::of)).isNull();
+
+    // 전체 이력을 가진 방은 남은 만큼만 반환
+    buffer.findAfter(2L, null, 10, List::of);
+    buffer.append(2L, msg(1L));
+    assertThat(ids(buffer.findBefore(2L, null, 3, List::of))).containsExactly(1L);
+  }
+
+  @Test
+  @DisplayName("순서가 바뀌어 들어온 메시지도 ID 순으로 보관되고 중복은 무시된다")
+  void append_outOfOrder() {
+    RecentChatMsgBuffer buffer = new RecentChatMsgBuffer(5, 10);
+    buffer.findAfter(1L, null, 10, List::of); // 메시지 없는 방 -> 전체 이력 보유
+
+    buffer.append(1L, msg(3L));
+    buffer.append(1L, msg(1L));
+    buffer.append(1L, msg(2L));
+    buffer.append(1L, msg(2L));
+
+    assertThat(ids(buffer.findAfter(1L, null, 10, List::of))).containsExactly(1L, 2L, 3L);
+  }
+
+  @Test
+  @DisplayName("방 개수가 최대치를 넘으면 가장 오래 사용되지 않은 방이 제거된다")
+  void evict_leastRecentlyUsedRoom() {
+    RecentChatMsgBuffer buffer = new RecentChatMsgBuffer(5, 2);
+    buffer.findAfter(1L, null, 10, List::of);
+    buffer.findAfter(2L, null, 10, List::of);
+    buffer.findAfter(1L, null, 10, List::of);
+    buffer.findAfter(3L, null, 10, List::of);
+
+    List<Long> loaded = new ArrayList<>();
+    buffer.findAfter(1L, null, 10, () -> {
+      loaded.add(1L);
+      return List.of();
+    });
+    buffer.findAfter(2L, null, 10, () -> {
+      loaded.add(2L);
+      return List.of();
+    });
+    assertThat(loaded).containsExactly(2L);
+  }
+
+  private static ChatMsgDto msg(long id) {
+    return new ChatMsgDto(id, 1L, "test", "message" + id, LocalDateTime.now());
+  }
+
+  private static List<Long> ids(List<ChatMsgDto> chatMsgs) {
+    return chatMsgs.stream().map(ChatMsgDto::getChatMsgId).collect(Collectors.toList());
+  }
+}
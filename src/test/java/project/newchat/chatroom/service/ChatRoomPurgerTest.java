@@ -0,0 +1,84 @@
+package project.newchat.chatroom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.newchat.chatroom.controller.request.ChatRoomRequest;
+import project.newchat.chatroom.repository.ChatRoomRepository;
+import project.newchat.common.metrics.ChatMetrics;
+import project.newchat.user.domain.User;
+import project.newchat.user.domain.request.UserRequest;
+import project.newchat.user.service.UserService;
+
+@SpringBootTest(properties = {
+    "chat.room.purge.enabled=false",
+    "chat.room.purge.chunk-size=3",
+    "chat.room.purge.chunk-pause-ms=0",
+    "chat.room.purge.interval-ms=3600000"})
+class ChatRoomPurgerTest {
+
+  @Autowired
+  private ChatRoomService chatRoomService;
+
+  @Autowired
+  private ChatRoomPurger chatRoomPurger;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private ChatRoomRepository chatRoomRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Test
+  @DisplayName("방 삭제는 표시만 하고 조회에서 제외, 메시지/참여 정보는 chunk 단위로 정리")
+  void deleteRoom_markThenPurge() {
+    while (chatRoomPurger.purgeDeletedRooms() > 0) {
+      // 다른 테스트가 삭제 표시만 해 둔 방을 먼저 정리
+    }
+    User creator = userService.signUpTest(new UserRequest("purge1@test.com", "1234", "creator"));
+    User member = userService.signUpTest(new UserRequest("purge2@test.com", "1234", "member"));
+    chatRoomService.createRoom(new ChatRoomRequest("purgeRoom", 8), creator.getId());
+    Long roomId = jdbcTemplate.queryForObject(
+        "select chat_room_id from chat_room where title = 'purgeRoom'", Long.class);
+    chatRoomService.joinRoom(roomId, member.getId());
+    for (long i = 1; i <= 10; i++) {
+      jdbcTemplate.update("insert into chat_msg (chat_msg_id, chat_room_id, user_id, message, "
+          + "send_time) values (?, ?, ?, ?, now())", roomId + i, roomId, creator.getId(), "m" + i);
+    }
+
+    chatRoomService.deleteRoom(creator.getId(), roomId);
+
+    assertThat(chatRoomRepository.findChatRoomById(roomId)).isEmpty();
+    assertThat(chatRoomService.getUserByRoomPartList(member.getId(), null, 20).getRooms()).isEmpty();
+
+    assertThat(count("chat_msg", roomId)).isEqualTo(10);
+
+    double chunks = chunkCount(ChatMetrics.TABLE_CHAT_MSG);
+    assertThat(chatRoomPurger.purgeDeletedRooms()).isEqualTo(1);
+    // chunk-size=3 -> 3, 3, 3, 1
+    assertThat(chunkCount(ChatMetrics.TABLE_CHAT_MSG) - chunks).isEqualTo(4);
+    assertThat(count("chat_msg", roomId)).isZero();
+    assertThat(count("user_chat_room", roomId)).isZero();
+    assertThat(count("chat_room", roomId)).isZero();
+  }
+
+  private double chunkCount(String table) {
+    return meterRegistry.get("chat.room.purge.chunk").tag("table", table).timer().count();
+  }
+
+  private Long count(String table, Long roomId) {
+    return jdbcTemplate.queryForObject(
+        "select count(*) from " + table + " where chat_room_id = ?", Long.class, roomId);
+  }
+}
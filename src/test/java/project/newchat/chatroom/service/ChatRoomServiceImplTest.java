@@ -3,11 +3,13 @@ package project.newchat.chatroom.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 import project.newchat.chatroom.controller.request.ChatRoomRequest;
 import project.newchat.chatroom.domain.ChatRoom;
@@ -17,7 +19,10 @@ import project.newchat.common.type.ErrorCode;
 import project.newchat.user.domain.User;
 import project.newchat.user.domain.request.LoginRequest;
 import project.newchat.user.domain.request.UserRequest;
+import project.newchat.user.repository.UserRepository;
 import project.newchat.user.service.UserService;
+import project.newchat.user.service.UserSummaryCache;
+import project.newchat.userchatroom.repository.UserChatRoomRepository;
 
 @SpringBootTest
 @Transactional
@@ -32,6 +37,27 @@ class ChatRoomServiceImplTest {
   @Autowired
   private ChatRoomRepository chatRoomRepository;
 
+  @Autowired
+  private UserChatRoomRepository userChatRoomRepository;
+
+  @Autowired
+  private ChatRoomUserCountBackfill chatRoomUserCountBackfill;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private UserSummaryCache userSummaryCache;
+
+  // 롤백된 유저 ID 는 H2 가 다른 테스트의 유저에게 다시 발급하므로 캐시에서 뺀다. (롤백 전에 실행됨)
+  @AfterEach
+  void evictUsers() {
+    userRepository.findAll().forEach(user -> userSummaryCache.evict(user.getId()));
+  }
+
 
   @Test
   @DisplayName("채팅방 생성")
@@ -54,23 +80,95 @@ class ChatRoomServiceImplTest {
   @DisplayName("동일 채팅방 두 번 이상 입장 시도(실패가 되어야 한다.)")
   void continue_joinRoom_failed() {
     UserRequest user = new UserRequest("test@test.com", "1234", "test");
-    userService.signUpTest(user);
+    User saveUser = userService.signUpTest(user);
 
     UserRequest user2 = new UserRequest("test2@test.com", "1234", "test");
-    userService.signUpTest(user2);
+    User saveUser2 = userService.signUpTest(user2);
 
     ChatRoom test = ChatRoom.builder()
-        .roomCreator(1L)
+        .roomCreator(saveUser.getId())
         .title("test")
         .userCountMax(8)
         .build();
 
-    chatRoomRepository.save(test);
-    chatRoomService.joinRoom(1L, 2L);
+    // ID가 INSERT 전에 발급되므로 같은 트랜잭션에서 락 조회 전에 flush
+    ChatRoom save = chatRoomRepository.saveAndFlush(test);
+    chatRoomService.joinRoom(save.getId(), saveUser2.getId());
 
     CustomException exception = assertThrows(CustomException.class, () ->
-        chatRoomService.joinRoom(1L, 2L));
+        chatRoomService.joinRoom(save.getId(), saveUser2.getId()));
     assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.ALREADY_JOIN_ROOM);
     assertThat(exception.getErrorMessage()).isEqualTo("이미 채팅방에 입장해 있습니다.");
   }
-}
\ No newline at end of file
+
+  @Test
+  @DisplayName("방 나가기는 해당 방의 참여 정보만 삭제하고, 참여하지 않은 방은 NOT_ROOM_MEMBER")
+  void outRoom_onlyThatRoom() {
+    User creator = userService.signUpTest(new UserRequest("out1@test.com", "1234", "creator"));
+    User member = userService.signUpTest(new UserRequest("out2@test.com", "1234", "member"));
+
+    ChatRoom room1 = chatRoomRepository.saveAndFlush(ChatRoom.builder()
+        .roomCreator(creator.getId()).title("room1").userCountMax(8).build());
+    ChatRoom room2 = chatRoomRepository.saveAndFlush(ChatRoom.builder()
+        .roomCreator(creator.getId()).title("room2").userCountMax(8).build());
+    chatRoomService.joinRoom(room1.getId(), member.getId());
+    chatRoomService.joinRoom(room2.getId(), member.getId());
+
+    chatRoomService.outRoom(member.getId(), room1.getId());
+
+    assertThat(userChatRoomRepository.existsByUserIdAndChatRoomId(member.getId(), room1.getId()))
+        .isFalse();
+    assertThat(userChatRoomRepository.existsByUserIdAndChatRoomId(member.getId(), room2.getId()))
+        .isTrue();
+    CustomException exception = assertThrows(CustomException.class, () ->
+        chatRoomService.outRoom(member.getId(), room1.getId()));
+    assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.NOT_ROOM_MEMBER);
+  }
+
+  @Test
+  @DisplayName("현재 인원이 0 으로 남은 기존 방은 참여자 수로 채운다")
+  void backfillUserCount() {
+    User creator = userService.signUpTest(new UserRequest("fill1@test.com", "1234", "creator"));
+    User member = userService.signUpTest(new UserRequest("fill2@test.com", "1234", "member"));
+    ChatRoom room = chatRoomRepository.saveAndFlush(ChatRoom.builder()
+        .roomCreator(creator.getId())
+        .title("fill")
+        .userCountMax(8)
+        .build());
+    chatRoomService.joinRoom(room.getId(), member.getId());
+    chatRoomRepository.flush();
+    // 컬럼 추가 전에 만들어진 방처럼 인원을 0 으로
+    jdbcTemplate.update("update chat_room set current_user_count = 0 where chat_room_id = ?",
+        room.getId());
+
+    assertThat(chatRoomUserCountBackfill.backfill()).isEqualTo(1);
+    assertThat(userCount(room.getId())).isEqualTo(1L);
+    // 이미 맞춘 방은 다시 바꾸지 않는다
+    assertThat(chatRoomUserCountBackfill.backfill()).isZero();
+  }
+
+  private Long userCount(Long roomId) {
+    return jdbcTemplate.queryForObject(
+        "select current_user_count from chat_room where chat_room_id = ?", Long.class, roomId);
+  }
+
+  @Test
+  @DisplayName("방 참여자는 방을 담당하는 서버의 WebSocket 주소를 조회할 수 있다")
+  void getRoomNode() {
+    User creator = userService.signUpTest(new UserRequest("node1@test.com", "1234", "creator"));
+    User outsider = userService.signUpTest(new UserRequest("node2@test.com", "1234", "outsider"));
+    ChatRoom room = chatRoomRepository.saveAndFlush(ChatRoom.builder()
+        .roomCreator(creator.getId())
+        .title("node")
+        .userCountMax(8)
+        .build());
+    chatRoomService.joinRoom(room.getId(), creator.getId());
+
+    // 라우팅을 쓰지 않으면 같은 서버 기준 경로
+    assertThat(chatRoomService.getRoomNode(room.getId(), creator.getId()).getUrl())
+        .isEqualTo("/ws/chat/" + room.getId());
+    CustomException exception = assertThrows(CustomException.class, () ->
+        chatRoomService.getRoomNode(room.getId(), outsider.getId()));
+    assertThat(exception.getErrorCode()).isEqualTo(ErrorCode.NOT_ROOM_MEMBER);
+  }
+}
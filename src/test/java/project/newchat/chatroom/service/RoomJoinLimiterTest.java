@@ -0,0 +1,105 @@
+package project.newchat.chatroom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import project.newchat.common.exception.CustomException;
+import project.newchat.common.metrics.ChatMetrics;
+import project.newchat.common.type.ErrorCode;
+import project.newchat.common.type.RoomJoinMode;
+
+class RoomJoinLimiterTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  @DisplayName("락 대기 초과는 재시도하고, 성공하면 그대로 반환")
+  void execute_retriesLockTimeout() {
+    RoomJoinLimiter limiter = limiter(4, 3);
+    AtomicInteger calls = new AtomicInteger();
+
+    limiter.execute(1L, RoomJoinMode.PESSIMISTIC, () -> {
+      if (calls.incrementAndGet() < 3) {
+        throw new CannotAcquireLockException("lock timeout");
+      }
+    });
+
+    assertThat(calls).hasValue(3);
+    assertThat(registry.get("chat.room.join.retries").tag("mode", "pessimistic").counter()
+        .count()).isEqualTo(2);
+    assertThat(limiter.activeRooms()).isZero();
+  }
+
+  @Test
+  @DisplayName("재시도 한도를 넘으면 ROOM_JOIN_BUSY, 다른 예외는 재시도 없이 그대로 전달")
+  void execute_exhausted_roomJoinBusy() {
+    RoomJoinLimiter limiter = limiter(4, 3);
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThatThrownBy(() -> limiter.execute(1L, RoomJoinMode.ATOMIC, () -> {
+      calls.incrementAndGet();
+      throw new CannotAcquireLockException("lock timeout");
+    }))
+        .isInstanceOf(CustomException.class)
+        .extracting("errorCode").isEqualTo(ErrorCode.ROOM_JOIN_BUSY);
+    assertThat(calls).hasValue(3);
+
+    assertThatThrownBy(() -> limiter.execute(1L, RoomJoinMode.ATOMIC, () -> {
+      calls.incrementAndGet();
+      throw new CustomException(ErrorCode.ROOM_USER_FULL);
+    }))
+        .extracting("errorCode").isEqualTo(ErrorCode.ROOM_USER_FULL);
+    assertThat(calls).hasValue(4);
+    assertThat(limiter.activeRooms()).isZero();
+  }
+
+  @Test
+  @DisplayName("같은 방의 동시 입장 처리는 max-concurrency 개를 넘지 않는다")
+  void execute_limitsConcurrencyPerRoom() throws InterruptedException {
+    RoomJoinLimiter limiter = limiter(2, 1);
+    int threads = 10;
+    ExecutorService executorService = Executors.newFixedThreadPool(threads);
+    CountDownLatch countDownLatch = new CountDownLatch(threads);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    for (int i = 0; i < threads; i++) {
+      executorService.submit(() -> {
+        try {
+          limiter.execute(1L, RoomJoinMode.ATOMIC, () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(20);
+            running.decrementAndGet();
+          });
+        } finally {
+          countDownLatch.countDown();
+        }
+      });
+    }
+    countDownLatch.await();
+    executorService.shutdown();
+
+    assertThat(maxRunning.get()).isBetween(1, 2);
+    assertThat(limiter.activeRooms()).isZero();
+  }
+
+  private RoomJoinLimiter limiter(int maxConcurrency, int maxAttempts) {
+    return new RoomJoinLimiter(new ChatMetrics(registry), maxConcurrency, 5000, maxAttempts, 1, 5);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package project.newchat.common.broadcast;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 테스트용 브로커. 여러 서버(버스)가 하나를 공유하고, 발행한 스레드에서 바로 구독자에게 전달한다.
+ */
+public class InMemoryPubSubBroker {
+
+  private final Map<String, List<Consumer<byte[]>>> channels = new ConcurrentHashMap<>();
+
+  // 서버 하나가 보는 브로커 연결 (연결 단위로 채널 구독)
+  public PubSubBroker connect() {
+    Map<String, Consumer<byte[]>> subscriptions = new ConcurrentHashMap<>();
+    return new PubSubBroker() {
+      @Override
+      public void publish(String channel, byte[] payload) {
+        channels.getOrDefault(channel, List.of()).forEach(listener -> listener.accept(payload));
+      }
+
+      @Override
+      public void subscribe(String channel, Consumer<byte[]> listener) {
+        unsubscribe(channel);
+        subscriptions.put(channel, listener);
+        channels.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+      }
+
+      @Override
+      public void unsubscribe(String channel) {
+        Consumer<byte[]> listener = subscriptions.remove(channel);
+        if (listener != null) {
+          channels.getOrDefault(channel, List.of()).remove(listener);
+        }
+      }
+    };
+  }
+
+  int subscriberCount(String channel) {
+    return channels.getOrDefault(channel, List.of()).size();
+  }
+}
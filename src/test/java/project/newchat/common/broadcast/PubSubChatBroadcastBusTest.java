@@ -0,0 +1,128 @@
+package project.newchat.common.broadcast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+import project.newchat.common.type.ChatEnvelopeType;
+
+class PubSubChatBroadcastBusTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+  private final InMemoryPubSubBroker broker = new InMemoryPubSubBroker();
+
+  private final PubSubChatBroadcastBus node1 = bus();
+
+  private final PubSubChatBroadcastBus node2 = bus();
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    node1.shutdown();
+    node2.shutdown();
+  }
+
+  @Test
+  @DisplayName("다른 서버에서 발행한 메시지가 같은 방을 구독한 서버에 한 번씩 전달된다")
+  void publish_reachesOtherNode_once() throws InterruptedException {
+    List<ChatEnvelope> received1 = new CopyOnWriteArrayList<>();
+    List<ChatEnvelope> received2 = new CopyOnWriteArrayList<>();
+    node1.subscribe(1L, received1::add);
+    node2.subscribe(1L, received2::add);
+
+    for (long id = 1; id <= 50; id++) {
+      node1.publish(envelope(id, 1L));
+    }
+    node1.publish(envelope(50L, 1L)); // 중복 발행
+
+    await(() -> received2.size() >= 50);
+    Thread.sleep(100);
+    assertThat(ids(received1)).hasSize(50);
+    assertThat(ids(received2)).hasSize(50).doesNotHaveDuplicates();
+  }
+
+  @Test
+  @DisplayName("세션이 없는 방은 구독하지 않고, 구독 해제하면 더 이상 받지 않는다")
+  void subscribe_onlyRoomsWithSessions() throws InterruptedException {
+    List<ChatEnvelope> received2 = new CopyOnWriteArrayList<>();
+    Consumer<ChatEnvelope> listener = received2::add;
+    node2.subscribe(1L, listener);
+
+    node1.publish(envelope(1L, 2L));
+    node1.publish(envelope(2L, 1L));
+    await(() -> received2.size() >= 1);
+    assertThat(ids(received2)).containsExactly(2L);
+    assertThat(broker.subscriberCount(PubSubChatBroadcastBus.CHANNEL_PREFIX + 2)).isZero();
+
+    node2.unsubscribe(1L, listener);
+    assertThat(broker.subscriberCount(PubSubChatBroadcastBus.CHANNEL_PREFIX + 1)).isZero();
+    node1.publish(envelope(3L, 1L));
+    Thread.sleep(100);
+    assertThat(ids(received2)).containsExactly(2L);
+  }
+
+  @Test
+  @DisplayName("퇴장/방 삭제 이벤트는 방을 구독하지 않은 서버에도 전달되고, 메시지는 전달되지 않는다")
+  void events_reachEveryNode() throws InterruptedException {
+    List<ChatEnvelope> events = new CopyOnWriteArrayList<>();
+    node2.subscribeEvents(events::add);
+
+    node1.publish(envelope(1L, 1L));
+    node1.publish(event(2L, 1L, ChatEnvelopeType.LEAVE));
+    node1.publish(event(3L, 2L, ChatEnvelopeType.ROOM_DELETED));
+
+    await(() -> events.size() >= 2);
+    Thread.sleep(100);
+    assertThat(ids(events)).containsExactly(2L, 3L);
+    assertThat(broker.subscriberCount(PubSubChatBroadcastBus.CHANNEL_PREFIX + 1)).isZero();
+  }
+
+  private PubSubChatBroadcastBus bus() {
+    PubSubChatBroadcastBus bus = new PubSubChatBroadcastBus(
+        broker.connect(), objectMapper, 100, 10, 5, 1000);
+    bus.start();
+    return bus;
+  }
+
+  private static ChatEnvelope envelope(long messageId, long roomId) {
+    return ChatEnvelope.builder()
+        .messageId(messageId)
+        .roomId(roomId)
+        .senderId(1L)
+        .from("test")
+        .message("message" + messageId)
+        .sendTime(LocalDateTime.now())
+        .build();
+  }
+
+  private static ChatEnvelope event(long messageId, long roomId, ChatEnvelopeType type) {
+    return ChatEnvelope.builder()
+        .messageId(messageId)
+        .roomId(roomId)
+        .senderId(1L)
+        .type(type)
+        .build();
+  }
+
+  private static List<Long> ids(List<ChatEnvelope> envelopes) {
+    return envelopes.stream().map(ChatEnvelope::getMessageId).collect(Collectors.toList());
+  }
+
+  private static void await(BooleanSupplier condition)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+}
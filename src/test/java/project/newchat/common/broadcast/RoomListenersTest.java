@@ -0,0 +1,86 @@
+package project.newchat.common.broadcast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+
+class RoomListenersTest {
+
+  private final RoomListeners listeners = new RoomListeners();
+
+  @Test
+  @DisplayName("첫 listener 콜백(브로커 구독)이 느려도 같은 해시 구간의 다른 방은 막히지 않는다")
+  void slowOnFirst_doesNotBlockOtherRooms() throws Exception {
+    CountDownLatch subscribing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    // 1 과 17 은 ConcurrentHashMap 의 같은 버킷
+    CompletableFuture<Void> slow = CompletableFuture.runAsync(() ->
+        listeners.add(1L, envelope -> { }, () -> {
+          subscribing.countDown();
+          await(release);
+        }));
+    assertThat(subscribing.await(5, TimeUnit.SECONDS)).isTrue();
+
+    List<ChatEnvelope> received = new CopyOnWriteArrayList<>();
+    CompletableFuture.runAsync(() -> listeners.add(17L, received::add))
+        .get(5, TimeUnit.SECONDS);
+    listeners.deliver(envelope(17L));
+
+    release.countDown();
+    slow.get(5, TimeUnit.SECONDS);
+    assertThat(received).hasSize(1);
+  }
+
+  @Test
+  @DisplayName("첫 listener 콜백 안에서 다른 방을 구독/해제해도 예외 없이 처리")
+  void onFirst_reentrant() {
+    List<ChatEnvelope> received = new CopyOnWriteArrayList<>();
+    Consumer<ChatEnvelope> other = received::add;
+
+    listeners.add(1L, received::add, () -> {
+      listeners.add(17L, other);
+      listeners.deliver(envelope(17L));
+      listeners.remove(17L, other);
+    });
+    listeners.deliver(envelope(1L));
+
+    assertThat(received).extracting(ChatEnvelope::getRoomId).containsExactly(17L, 1L);
+  }
+
+  @Test
+  @DisplayName("마지막 listener 가 빠지면 해제 콜백 후 다시 추가될 때 첫 listener 콜백이 실행된다")
+  void removeLast_thenAdd_runsOnFirstAgain() {
+    List<String> calls = new CopyOnWriteArrayList<>();
+    Consumer<ChatEnvelope> listener = envelope -> { };
+
+    listeners.add(1L, listener, () -> calls.add("subscribe"));
+    listeners.add(1L, envelope -> { }, () -> calls.add("subscribe"));
+    listeners.remove(1L, listener, () -> calls.add("unsubscribe"));
+    assertThat(calls).containsExactly("subscribe");
+
+    listeners.add(2L, listener, () -> calls.add("subscribe2"));
+    listeners.remove(2L, listener, () -> calls.add("unsubscribe2"));
+    listeners.add(2L, listener, () -> calls.add("subscribe2"));
+    assertThat(calls).containsExactly("subscribe", "subscribe2", "unsubscribe2", "subscribe2");
+  }
+
+  private static ChatEnvelope envelope(Long roomId) {
+    return ChatEnvelope.builder().roomId(roomId).message("hello").build();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(30, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
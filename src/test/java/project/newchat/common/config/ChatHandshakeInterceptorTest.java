@@ -0,0 +1,60 @@
+package project.newchat.common.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import project.newchat.chatroom.service.RoomMembershipIndex;
+import project.newchat.common.routing.RoomRouter;
+import project.newchat.userchatroom.repository.UserChatRoomRepository;
+
+class ChatHandshakeInterceptorTest {
+
+  private static final String SELF = "ws://chat-1:8080";
+
+  private static final String OTHER = "ws://chat-2:8080";
+
+  private final RoomRouter roomRouter = new RoomRouter(List.of(SELF, OTHER), SELF, 160);
+
+  private final ChatHandshakeInterceptor interceptor = new ChatHandshakeInterceptor(
+      new RoomMembershipIndex(mock(UserChatRoomRepository.class), 100), roomRouter);
+
+  @Test
+  @DisplayName("다른 서버가 담당하는 방은 같은 경로/쿼리로 담당 서버에 307 리다이렉트")
+  void notLocal_redirectsToOwner() throws Exception {
+    long roomId = remoteRoomId();
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/chat");
+    request.setQueryString("roomId=" + roomId);
+    request.getSession().setAttribute("user", 1L);
+    MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+    ServletServerHttpResponse response = new ServletServerHttpResponse(servletResponse);
+    Map<String, Object> attributes = new HashMap<>();
+
+    boolean accepted = interceptor.beforeHandshake(new ServletServerHttpRequest(request),
+        response, null, attributes);
+    response.flush();
+
+    assertThat(accepted).isFalse();
+    assertThat(attributes).isEmpty();
+    assertThat(servletResponse.getStatus()).isEqualTo(HttpStatus.TEMPORARY_REDIRECT.value());
+    assertThat(servletResponse.getHeader("Location"))
+        .isEqualTo(OTHER + "/chat?roomId=" + roomId);
+  }
+
+  private long remoteRoomId() {
+    for (long roomId = 1; ; roomId++) {
+      if (!roomRouter.isLocal(roomId)) {
+        return roomId;
+      }
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package project.newchat.common.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import project.newchat.chatroom.domain.ChatRoom;
+import project.newchat.chatroom.repository.ChatRoomRepository;
+import project.newchat.user.domain.User;
+import project.newchat.user.domain.request.LoginRequest;
+import project.newchat.user.domain.request.UserRequest;
+import project.newchat.user.service.UserService;
+import project.newchat.userchatroom.domain.UserChatRoom;
+import project.newchat.userchatroom.repository.UserChatRoomRepository;
+
+// 실제 서버에 접속해서 WebSocket 경로가 REST 매핑에 가려지지 않는지 확인
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class ChatWebSocketHandshakeTest {
+
+  private static final String PASSWORD = "1234";
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private ChatRoomRepository chatRoomRepository;
+
+  @Autowired
+  private UserChatRoomRepository userChatRoomRepository;
+
+  private final StandardWebSocketClient client = new StandardWebSocketClient();
+
+  private User member;
+
+  private User outsider;
+
+  private ChatRoom room;
+
+  @BeforeEach
+  void setUp() {
+    long suffix = System.nanoTime() % 1_000_000; // 이메일 최대 20자
+    member = userService.signUpTest(new UserRequest("ws" + suffix + "@t.com", PASSWORD, "ws"));
+    outsider = userService.signUpTest(
+        new UserRequest("wsx" + suffix + "@t.com", PASSWORD, "wsx"));
+    room = chatRoomRepository.save(ChatRoom.builder()
+        .roomCreator(member.getId())
+        .title("ws")
+        .userCountMax(8)
+        .currentUserCount(1L)
+        .build());
+    userChatRoomRepository.save(UserChatRoom.builder().user(member).chatRoom(room).build());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"/chat?roomId=%d", "/ws/chat/%d"})
+  @DisplayName("방 참여자는 두 경로 모두로 WebSocket 업그레이드된다")
+  void handshake_accepted(String path) throws Exception {
+    WebSocketSession session = connect(member, String.format(path, room.getId()));
+
+    assertThat(session.isOpen()).isTrue();
+    session.close();
+  }
+
+  @Test
+  @DisplayName("방 참여자가 아니면 업그레이드 전에 거절된다")
+  void handshake_notMember() {
+    assertThatThrownBy(() -> connect(outsider, "/ws/chat/" + room.getId()))
+        .hasMessageContaining("403");
+  }
+
+  private WebSocketSession connect(User user, String path) throws Exception {
+    WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+    headers.add(HttpHeaders.COOKIE, login(user.getEmail()));
+    return client.doHandshake(new TextWebSocketHandler(), headers,
+        URI.create("ws://localhost:" + port + path)).get(10, TimeUnit.SECONDS);
+  }
+
+  private String login(String email) {
+    ResponseEntity<String> response = restTemplate.postForEntity(
+        "/chat/user/login", new LoginRequest(email, PASSWORD), String.class);
+    String cookie = response.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+    assertThat(cookie).isNotNull();
+    return cookie.split(";", 2)[0];
+  }
+}
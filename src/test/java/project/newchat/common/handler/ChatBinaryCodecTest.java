@@ -0,0 +1,50 @@
+package project.newchat.common.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+
+class ChatBinaryCodecTest {
+
+  @Test
+  @DisplayName("인코딩한 프레임을 그대로 복원하고 JSON 보다 작다")
+  void encode_roundTrip() throws Exception {
+    ChatEnvelope envelope = ChatEnvelope.builder()
+        .roomId(12L)
+        .messageId(7_158_278_826_000_384L)
+        .senderId(345L)
+        .from("닉네임")
+        .message("안녕하세요 hello")
+        .sendTime(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000))
+        .build();
+
+    byte[] frame = ChatBinaryCodec.encode(envelope);
+    ChatEnvelope decoded = ChatBinaryCodec.decodeEnvelope(ByteBuffer.wrap(frame));
+
+    assertThat(decoded).usingRecursiveComparison().isEqualTo(envelope);
+    byte[] json = new ObjectMapper().registerModule(new JavaTimeModule())
+        .writeValueAsBytes(envelope);
+    assertThat(frame.length).isLessThan(json.length / 2);
+  }
+
+  @Test
+  @DisplayName("클라이언트 메시지 프레임 복원, 잘린 프레임은 IllegalArgumentException")
+  void decodeMessage() {
+    byte[] frame = ChatBinaryCodec.encodeMessage("채팅 메시지");
+
+    assertThat(ChatBinaryCodec.decodeMessage(ByteBuffer.wrap(frame))).isEqualTo("채팅 메시지");
+    assertThatThrownBy(() -> ChatBinaryCodec.decodeMessage(
+        ByteBuffer.wrap(Arrays.copyOf(frame, frame.length - 1))))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> ChatBinaryCodec.decodeMessage(ByteBuffer.wrap(new byte[]{9, 0})))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
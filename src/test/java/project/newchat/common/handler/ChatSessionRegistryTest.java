@@ -0,0 +1,103 @@
+package project.newchat.common.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+class ChatSessionRegistryTest {
+
+  private final ChatSessionRegistry registry = new ChatSessionRegistry();
+
+  @Test
+  @DisplayName("마지막 세션이 나가면 방이 제거된다")
+  void remove_lastSession_removesRoom() {
+    WebSocketSession session1 = session("1");
+    WebSocketSession session2 = session("2");
+    registry.add(1L, session1);
+    registry.add(1L, session2);
+
+    registry.remove(1L, session1);
+    assertThat(registry.getSessions(1L)).containsExactly(session2);
+
+    registry.remove(1L, session2);
+    assertThat(registry.getSessions(1L)).isEmpty();
+    assertThat(registry.roomCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("브로드캐스트 순회 중 동시 입장/퇴장이 일어나도 세션이 유실되지 않는다")
+  void concurrent_addRemove_whileIterating() throws InterruptedException {
+    int threads = 16;
+    int perThread = 200;
+    ExecutorService executorService = Executors.newFixedThreadPool(threads);
+    CountDownLatch countDownLatch = new CountDownLatch(threads);
+    List<WebSocketSession> kept = new ArrayList<>();
+
+    for (int t = 0; t < threads; t++) {
+      WebSocketSession keep = session("keep-" + t);
+      kept.add(keep);
+      int thread = t;
+      executorService.submit(() -> {
+        try {
+          registry.add(1L, keep);
+          for (int i = 0; i < perThread; i++) {
+            WebSocketSession temp = session(thread + "-" + i);
+            registry.add(1L, temp);
+            registry.getSessions(1L).forEach(WebSocketSession::getId);
+            registry.remove(1L, temp);
+          }
+        } finally {
+          countDownLatch.countDown();
+        }
+      });
+    }
+    countDownLatch.await();
+    executorService.shutdown();
+
+    assertThat(registry.getSessions(1L)).containsExactlyInAnyOrderElementsOf(kept);
+    assertThat(registry.sessionCount()).isEqualTo(threads);
+  }
+
+  @Test
+  @DisplayName("첫 세션 콜백(버스 구독)이 느려도 다른 방의 입장은 막히지 않는다")
+  void slowRoomOpened_doesNotBlockOtherRooms() throws Exception {
+    CountDownLatch opening = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    // 1 과 17 은 ConcurrentHashMap 의 같은 버킷
+    CompletableFuture<Void> slow = CompletableFuture.runAsync(() ->
+        registry.add(1L, session("slow"), () -> {
+          opening.countDown();
+          try {
+            release.await(30, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }));
+    assertThat(opening.await(5, TimeUnit.SECONDS)).isTrue();
+
+    WebSocketSession other = session("other");
+    CompletableFuture.runAsync(() -> registry.add(17L, other)).get(5, TimeUnit.SECONDS);
+    assertThat(registry.getSessions(17L)).containsExactly(other);
+
+    release.countDown();
+    slow.get(5, TimeUnit.SECONDS);
+    assertThat(registry.sessionCount()).isEqualTo(2);
+  }
+
+  private static WebSocketSession session(String id) {
+    WebSocketSession session = mock(WebSocketSession.class);
+    when(session.getId()).thenReturn(id);
+    return session;
+  }
+}
@@ -0,0 +1,187 @@
+package project.newchat.common.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import project.newchat.chatmsg.domain.request.ChatMsgRequest;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+import project.newchat.chatmsg.service.ChatMsgService;
+import project.newchat.common.broadcast.InProcessChatBroadcastBus;
+import project.newchat.common.config.ChatHandshakeInterceptor;
+import project.newchat.common.metrics.ChatMetrics;
+import project.newchat.common.type.ChatEnvelopeType;
+import project.newchat.common.type.SlowConsumerPolicy;
+
+class ChatWebSocketHandlerTest {
+
+  private final ChatSessionRegistry registry = new ChatSessionRegistry();
+
+  private final InProcessChatBroadcastBus bus = new InProcessChatBroadcastBus();
+
+  private final ChatWebSocketHandler handler = new ChatWebSocketHandler(registry,
+      new ObjectMapper(), null, bus, new ChatMetrics(new SimpleMeterRegistry()));
+
+  @Test
+  @DisplayName("퇴장 이벤트를 받으면 그 유저의 방 세션만 등록 해제 후 종료")
+  void leave_evictsOnlyThatUsersSessions() throws Exception {
+    ReflectionTestUtils.setField(handler, "sendTimeLimit", 5000);
+    ReflectionTestUtils.setField(handler, "sendBufferSizeLimit", 512 * 1024);
+    ReflectionTestUtils.setField(handler, "slowConsumerPolicy", SlowConsumerPolicy.DROP);
+    WebSocketSession left = session("1", 10L);
+    WebSocketSession stay = session("2", 20L);
+    handler.afterConnectionEstablished(left);
+    handler.afterConnectionEstablished(stay);
+
+    bus.publish(ChatEnvelope.builder()
+        .messageId(1L)
+        .roomId(1L)
+        .senderId(10L)
+        .type(ChatEnvelopeType.LEAVE)
+        .build());
+
+    assertThat(registry.getSessions(1L)).extracting(WebSocketSession::getId).containsExactly("2");
+    verify(left).close(any(CloseStatus.class));
+    verify(stay, never()).close(any(CloseStatus.class));
+  }
+
+  @Test
+  @DisplayName("방 삭제 이벤트를 받으면 방의 모든 세션을 등록 해제 후 종료")
+  void roomDeleted_evictsAllSessions() throws Exception {
+    ReflectionTestUtils.setField(handler, "sendTimeLimit", 5000);
+    ReflectionTestUtils.setField(handler, "sendBufferSizeLimit", 512 * 1024);
+    ReflectionTestUtils.setField(handler, "slowConsumerPolicy", SlowConsumerPolicy.DROP);
+    WebSocketSession first = session("1", 10L);
+    WebSocketSession second = session("2", 20L);
+    handler.afterConnectionEstablished(first);
+    handler.afterConnectionEstablished(second);
+
+    bus.publish(ChatEnvelope.builder()
+        .messageId(1L)
+        .roomId(1L)
+        .type(ChatEnvelopeType.ROOM_DELETED)
+        .build());
+
+    assertThat(registry.getSessions(1L)).isEmpty();
+    verify(first).close(any(CloseStatus.class));
+    verify(second).close(any(CloseStatus.class));
+  }
+
+  @Test
+  @DisplayName("바이너리 서브프로토콜 세션에는 바이너리, 나머지는 JSON 텍스트 프레임으로 전송")
+  void deliver_perSessionProtocol() throws Exception {
+    ReflectionTestUtils.setField(handler, "sendTimeLimit", 5000);
+    ReflectionTestUtils.setField(handler, "sendBufferSizeLimit", 512 * 1024);
+    ReflectionTestUtils.setField(handler, "slowConsumerPolicy", SlowConsumerPolicy.DROP);
+    WebSocketSession json = session("1", 10L);
+    WebSocketSession binary = session("2", 20L);
+    when(binary.getAcceptedProtocol()).thenReturn(ChatBinaryCodec.SUB_PROTOCOL);
+    handler.afterConnectionEstablished(json);
+    handler.afterConnectionEstablished(binary);
+
+    bus.publish(ChatEnvelope.builder()
+        .messageId(5L)
+        .roomId(1L)
+        .senderId(10L)
+        .from("test")
+        .message("hello")
+        .build());
+
+    ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+    verify(binary).sendMessage(sent.capture());
+    assertThat(sent.getValue()).isInstanceOf(BinaryMessage.class);
+    assertThat(ChatBinaryCodec.decodeEnvelope((ByteBuffer) sent.getValue().getPayload())
+        .getMessage()).isEqualTo("hello");
+    verify(json).sendMessage(sent.capture());
+    assertThat(sent.getValue()).isInstanceOf(TextMessage.class);
+    assertThat((String) sent.getValue().getPayload()).contains("\"message\":\"hello\"");
+  }
+
+  @Test
+  @DisplayName("송신이 막혀 한도를 넘은 세션은 등록 해제 후 SESSION_NOT_RELIABLE 로 종료")
+  void deliver_closesStalledSession() throws Exception {
+    ReflectionTestUtils.setField(handler, "sendTimeLimit", 100);
+    ReflectionTestUtils.setField(handler, "sendBufferSizeLimit", 512 * 1024);
+    ReflectionTestUtils.setField(handler, "slowConsumerPolicy", SlowConsumerPolicy.DROP);
+    WebSocketSession stalled = session("1", 10L);
+    WebSocketSession healthy = session("2", 20L);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      release.await();
+      return null;
+    }).when(stalled).sendMessage(any());
+    handler.afterConnectionEstablished(stalled);
+    handler.afterConnectionEstablished(healthy);
+
+    // 첫 전송은 막힌 세션에서 멈춘다 (다른 스레드)
+    Thread first = new Thread(() -> bus.publish(message(1L)));
+    first.start();
+    Thread.sleep(300);
+    bus.publish(message(2L));
+
+    assertThat(registry.getSessions(1L)).extracting(WebSocketSession::getId).containsExactly("2");
+    verify(stalled, timeout(1000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+    verify(healthy, never()).close(any(CloseStatus.class));
+    release.countDown();
+    first.join();
+    verify(healthy, timeout(1000).times(2)).sendMessage(any());
+  }
+
+  @Test
+  @DisplayName("바이너리 메시지는 본문만 꺼내서 전송, 형식이 잘못되면 BAD_DATA 로 종료")
+  void handleMessage_binary() throws Exception {
+    ChatMsgService chatMsgService = mock(ChatMsgService.class);
+    ChatWebSocketHandler binaryHandler = new ChatWebSocketHandler(registry, new ObjectMapper(),
+        chatMsgService, bus, new ChatMetrics(new SimpleMeterRegistry()));
+    WebSocketSession session = session("1", 10L);
+
+    binaryHandler.handleMessage(session,
+        new BinaryMessage(ChatBinaryCodec.encodeMessage("안녕")));
+    binaryHandler.handleMessage(session, new BinaryMessage(new byte[]{1, 5, 'a'}));
+
+    ArgumentCaptor<ChatMsgRequest> request = ArgumentCaptor.forClass(ChatMsgRequest.class);
+    verify(chatMsgService).sendMessage(request.capture(), eq(10L), eq(1L));
+    assertThat(request.getValue().getMessage()).isEqualTo("안녕");
+    verify(session).close(CloseStatus.BAD_DATA);
+  }
+
+  private static ChatEnvelope message(Long messageId) {
+    return ChatEnvelope.builder()
+        .messageId(messageId)
+        .roomId(1L)
+        .senderId(30L)
+        .message("m" + messageId)
+        .build();
+  }
+
+  private static WebSocketSession session(String id, Long userId) {
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put(ChatHandshakeInterceptor.ROOM_ID, 1L);
+    attributes.put(ChatHandshakeInterceptor.USER_ID, userId);
+    WebSocketSession session = mock(WebSocketSession.class);
+    when(session.getId()).thenReturn(id);
+    when(session.getAttributes()).thenReturn(attributes);
+    return session;
+  }
+}
@@ -0,0 +1,31 @@
+package project.newchat.common.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.newchat.chatmsg.dto.ChatEnvelope;
+
+class JsonIdTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  @Test
+  @DisplayName("발급 ID 는 JSON 문자열로 나가고, 문자열/숫자 모두 그대로 읽힌다")
+  void idAsString() throws Exception {
+    long id = new TimeOrderedIdGenerator(0).nextId();
+    assertThat(id).isGreaterThan(1L << 53);
+    ChatEnvelope envelope = ChatEnvelope.builder()
+        .messageId(id).roomId(id - 1).senderId(7L).message("hi").build();
+
+    String json = objectMapper.writeValueAsString(envelope);
+
+    assertThat(json).contains("\"messageId\":\"" + id + "\"")
+        .contains("\"roomId\":\"" + (id - 1) + "\"")
+        .contains("\"senderId\":7");
+    assertThat(objectMapper.readValue(json, ChatEnvelope.class).getMessageId()).isEqualTo(id);
+    assertThat(objectMapper.readValue("{\"messageId\":" + id + "}", ChatEnvelope.class)
+        .getMessageId()).isEqualTo(id);
+  }
+}
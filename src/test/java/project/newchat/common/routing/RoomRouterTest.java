@@ -0,0 +1,80 @@
+package project.newchat.common.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RoomRouterTest {
+
+  private static final int ROOMS = 100_000;
+
+  @Test
+  @DisplayName("방이 서버들에 고르게 나뉜다")
+  void ownerOf_balanced() {
+    RoomRouter router = new RoomRouter(List.of("a", "b", "c", "d"), "a", 160);
+
+    Map<String, Integer> counts = new HashMap<>();
+    for (long roomId = 1; roomId <= ROOMS; roomId++) {
+      counts.merge(router.ownerOf(roomId), 1, Integer::sum);
+    }
+
+    assertThat(counts).hasSize(4);
+    // 평균(25%) 대비 ±20% 이내
+    assertThat(counts.values()).allSatisfy(count ->
+        assertThat(count).isBetween(ROOMS / 4 * 8 / 10, ROOMS / 4 * 12 / 10));
+  }
+
+  @Test
+  @DisplayName("서버가 추가/제거되면 그 서버 몫의 방만 옮겨진다")
+  void addRemoveNode_minimalMovement() {
+    RoomRouter router = new RoomRouter(List.of("a", "b", "c", "d"), "a", 160);
+    String[] before = owners(router);
+
+    router.addNode("e");
+    String[] added = owners(router);
+    int moved = 0;
+    for (int i = 0; i < ROOMS; i++) {
+      if (!before[i].equals(added[i])) {
+        assertThat(added[i]).isEqualTo("e"); // 새 서버로만 이동
+        moved++;
+      }
+    }
+    // 약 1/5 만 이동
+    assertThat(moved).isBetween(ROOMS / 5 * 7 / 10, ROOMS / 5 * 13 / 10);
+
+    router.removeNode("e");
+    assertThat(owners(router)).containsExactly(before);
+  }
+
+  @Test
+  @DisplayName("라우팅 서버 목록이 없으면 모든 방을 이 서버가 담당한다")
+  void noNodes_allLocal() {
+    RoomRouter router = new RoomRouter(List.of(), "", 160);
+
+    assertThat(router.ownerOf(1L)).isNull();
+    assertThat(router.isLocal(1L)).isTrue();
+  }
+
+  @Test
+  @DisplayName("자기 서버 주소가 서버 목록에 없으면 생성 실패")
+  void selfNotInNodes_fails() {
+    assertThatThrownBy(() -> new RoomRouter(List.of("a", "b"), "", 160))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new RoomRouter(List.of("a", "b"), "c", 160))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(new RoomRouter(List.of("a", " b "), " b", 160).nodes()).containsExactly("a", "b");
+  }
+
+  private static String[] owners(RoomRouter router) {
+    String[] owners = new String[ROOMS];
+    for (int i = 0; i < ROOMS; i++) {
+      owners[i] = router.ownerOf((long) i + 1);
+    }
+    return owners;
+  }
+}
@@ -0,0 +1,34 @@
+package project.newchat.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LongHashSetTest {
+
+  @Test
+  @DisplayName("추가/삭제를 반복해도 HashSet 과 같은 결과를 낸다")
+  void addRemove_sameAsHashSet() {
+    LongHashSet set = new LongHashSet(4);
+    Set<Long> expected = new HashSet<>();
+    Random random = new Random(42);
+
+    for (int i = 0; i < 100_000; i++) {
+      long value = random.nextInt(2_000); // 0 포함, 충돌이 잦도록 좁은 범위
+      if (random.nextBoolean()) {
+        assertThat(set.add(value)).isEqualTo(expected.add(value));
+      } else {
+        assertThat(set.remove(value)).isEqualTo(expected.remove(value));
+      }
+    }
+
+    assertThat(set.size()).isEqualTo(expected.size());
+    for (long value = 0; value < 2_000; value++) {
+      assertThat(set.contains(value)).isEqualTo(expected.contains(value));
+    }
+  }
+}
@@ -0,0 +1,271 @@
+package project.newchat.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import project.newchat.chatroom.domain.ChatRoom;
+import project.newchat.chatroom.repository.ChatRoomRepository;
+import project.newchat.common.handler.ChatBinaryCodec;
+import project.newchat.user.domain.User;
+import project.newchat.user.domain.request.LoginRequest;
+import project.newchat.user.domain.request.UserRequest;
+import project.newchat.user.service.UserService;
+import project.newchat.userchatroom.domain.UserChatRoom;
+import project.newchat.userchatroom.repository.UserChatRoomRepository;
+
+/**
+ * WebSocket 부하 테스트 (./gradlew loadTest).
+ * 방 N개 x 클라이언트 M명이 /chat 에 접속해서 초당 rate 건씩 전송하고,
+ * 전송부터 같은 방 모든 클라이언트 수신까지의 지연(p50/p99/p999), 처리량, 유실/실패 건수를 출력한다.
+ * -Dloadtest.rooms=10 -Dloadtest.clients-per-room=20 -Dloadtest.rate-per-client=2 -Dloadtest.duration-seconds=10
+ * -Dloadtest.binary=true 이면 바이너리 서브프로토콜, -Dloadtest.deflate=true 이면 permessage-deflate 를 요청한다.
+ */
+@Tag("load")
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class ChatWebSocketLoadTest {
+
+  private static final String PASSWORD = "load1234";
+
+  private final int rooms = Integer.getInteger("loadtest.rooms", 10);
+  private final int clientsPerRoom = Integer.getInteger("loadtest.clients-per-room", 20);
+  private final int ratePerClient = Integer.getInteger("loadtest.rate-per-client", 2);
+  private final int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 10);
+  private final double minDeliveryRatio =
+      Double.parseDouble(System.getProperty("loadtest.min-delivery-ratio", "0.99"));
+  private final boolean binary = Boolean.getBoolean("loadtest.binary");
+  private final boolean deflate = Boolean.getBoolean("loadtest.deflate");
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private ChatRoomRepository chatRoomRepository;
+
+  @Autowired
+  private UserChatRoomRepository userChatRoomRepository;
+
+  private final AtomicLong sent = new AtomicLong();
+
+  private final AtomicLong failed = new AtomicLong();
+
+  @Test
+  @DisplayName("방 N개 x 클라이언트 M명 브로드캐스트 지연/처리량")
+  void fanOutLatency() throws Exception {
+    List<Client> clients = connectClients();
+    ScheduledExecutorService senders = Executors.newScheduledThreadPool(
+        Math.max(4, Runtime.getRuntime().availableProcessors()));
+    long periodMicros = TimeUnit.SECONDS.toMicros(1) / ratePerClient;
+
+    long start = System.nanoTime();
+    for (Client client : clients) {
+      // 클라이언트마다 시작 시점을 흩어서 동시에 몰리지 않도록
+      long delay = (long) (Math.random() * periodMicros);
+      senders.scheduleAtFixedRate(client::send, delay, periodMicros, TimeUnit.MICROSECONDS);
+    }
+    Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+    senders.shutdownNow();
+    senders.awaitTermination(5, TimeUnit.SECONDS);
+    long sendSeconds = System.nanoTime() - start;
+    long expected = sent.get() * (clientsPerRoom - 1);
+    awaitDelivery(clients, expected);
+    for (Client client : clients) {
+      client.session.close();
+    }
+
+    long[] latencies = merge(clients);
+    long received = latencies.length;
+    double seconds = sendSeconds / 1e9;
+    System.out.printf("%n[load] rooms=%d clients/room=%d rate/client=%d/s duration=%ds%n",
+        rooms, clientsPerRoom, ratePerClient, durationSeconds);
+    System.out.printf("[load] protocol=%s extensions=%s%n",
+        clients.get(0).session.getAcceptedProtocol(), clients.get(0).session.getExtensions());
+    System.out.printf("[load] sent=%d (%.0f/s) failed=%d delivered=%d (%.0f/s) dropped=%d%n",
+        sent.get(), sent.get() / seconds, failed.get(), received, received / seconds,
+        Math.max(0, expected - received));
+    System.out.printf("[load] fan-out latency ms p50=%.2f p99=%.2f p999=%.2f max=%.2f%n%n",
+        percentile(latencies, 0.5), percentile(latencies, 0.99),
+        percentile(latencies, 0.999), percentile(latencies, 1.0));
+
+    assertThat(failed.get()).isZero();
+    assertThat(received).isGreaterThanOrEqualTo((long) (expected * minDeliveryRatio));
+  }
+
+  private List<Client> connectClients() throws Exception {
+    StandardWebSocketClient webSocketClient = new StandardWebSocketClient();
+    List<Client> clients = new ArrayList<>();
+    for (int r = 0; r < rooms; r++) {
+      List<User> members = new ArrayList<>();
+      for (int c = 0; c < clientsPerRoom; c++) {
+        members.add(userService.signUpTest(
+            new UserRequest("lt" + r + "_" + c + "@t.com", PASSWORD, "load" + r + "_" + c)));
+      }
+      ChatRoom room = chatRoomRepository.save(ChatRoom.builder()
+          .roomCreator(members.get(0).getId())
+          .title("load" + r)
+          .userCountMax(clientsPerRoom)
+          .currentUserCount((long) clientsPerRoom)
+          .build());
+      for (User member : members) {
+        userChatRoomRepository.save(UserChatRoom.builder().user(member).chatRoom(room).build());
+      }
+      for (User member : members) {
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.add(HttpHeaders.COOKIE, login(member.getEmail()));
+        if (binary) {
+          headers.setSecWebSocketProtocol(ChatBinaryCodec.SUB_PROTOCOL);
+        }
+        if (deflate) {
+          headers.setSecWebSocketExtensions(List.of(new WebSocketExtension("permessage-deflate")));
+        }
+        Client client = new Client(member.getId());
+        client.session = webSocketClient.doHandshake(client, headers,
+            URI.create("ws://localhost:" + port + "/chat?roomId=" + room.getId()))
+            .get(10, TimeUnit.SECONDS);
+        clients.add(client);
+      }
+    }
+    return clients;
+  }
+
+  // 로그인 후 세션 쿠키 (핸드셰이크에서 HttpSession 으로 유저 확인)
+  private String login(String email) {
+    ResponseEntity<String> response = restTemplate.postForEntity(
+        "/chat/user/login", new LoginRequest(email, PASSWORD), String.class);
+    String cookie = response.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+    assertThat(cookie).isNotNull();
+    return cookie.split(";", 2)[0];
+  }
+
+  // 전송이 끝난 뒤 남은 브로드캐스트 수신 대기 (더 이상 늘지 않거나 모두 받을 때까지)
+  private static void awaitDelivery(List<Client> clients, long expected)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+    long previous = -1;
+    long current = 0;
+    while (current < expected && current != previous
+        && System.currentTimeMillis() < deadline) {
+      previous = current;
+      Thread.sleep(1000);
+      current = clients.stream().mapToLong(client -> client.received).sum();
+    }
+  }
+
+  private static long[] merge(List<Client> clients) {
+    int total = 0;
+    for (Client client : clients) {
+      total += client.received;
+    }
+    long[] merged = new long[total];
+    int offset = 0;
+    for (Client client : clients) {
+      System.arraycopy(client.latencies, 0, merged, offset, client.received);
+      offset += client.received;
+    }
+    Arrays.sort(merged);
+    return merged;
+  }
+
+  private static double percentile(long[] sorted, double p) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+    return sorted[Math.max(0, index)] / 1e6;
+  }
+
+  /**
+   * 클라이언트 한 명. 메시지 본문에 보낸 시각(nanoTime)과 보낸 유저를 담고,
+   * 같은 방 다른 클라이언트가 받은 시각과의 차이를 지연으로 기록한다.
+   */
+  private class Client extends AbstractWebSocketHandler {
+
+    private final String prefix;
+
+    private volatile WebSocketSession session;
+
+    // 세션당 수신 콜백은 한 스레드에서 순서대로 호출된다.
+    private long[] latencies = new long[1024];
+
+    private volatile int received;
+
+    Client(Long userId) {
+      this.prefix = userId + ":";
+    }
+
+    void send() {
+      try {
+        // 클라이언트 세션은 동시 전송을 허용하지 않으므로 전송 단위로 동기화
+        synchronized (this) {
+          String body = prefix + System.nanoTime();
+          session.sendMessage(binary
+              ? new BinaryMessage(ChatBinaryCodec.encodeMessage(body))
+              : new TextMessage(body));
+        }
+        sent.incrementAndGet();
+      } catch (Exception e) {
+        failed.incrementAndGet();
+      }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+      long now = System.nanoTime();
+      String payload = new String(message.asBytes(), StandardCharsets.UTF_8);
+      // {"message":"<userId>:<nanoTime>"} 에서 보낸 시각 추출
+      int start = payload.indexOf("\"message\":\"") + 11;
+      int end = payload.indexOf('"', start);
+      record(now, payload.substring(start, end));
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+      long now = System.nanoTime();
+      record(now, ChatBinaryCodec.decodeEnvelope(message.getPayload()).getMessage());
+    }
+
+    private void record(long now, String body) {
+      if (body.startsWith(prefix)) {
+        return; // 자기 메시지
+      }
+      long sentAt = Long.parseLong(body.substring(body.indexOf(':') + 1));
+      if (received == latencies.length) {
+        latencies = Arrays.copyOf(latencies, received * 2);
+      }
+      latencies[received] = now - sentAt;
+      received++;
+    }
+  }
+}
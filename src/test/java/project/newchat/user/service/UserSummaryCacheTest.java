@@ -0,0 +1,110 @@
+package project.newchat.user.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import project.newchat.common.config.ChatMetricsConfig;
+import project.newchat.common.exception.CustomException;
+import project.newchat.common.type.ErrorCode;
+import project.newchat.user.domain.User;
+import project.newchat.user.repository.UserRepository;
+
+class UserSummaryCacheTest {
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+
+  // 테스트에서 직접 돌리는 시계 (나노초)
+  private final AtomicLong now = new AtomicLong();
+
+  private final UserSummaryCache cache = new UserSummaryCache(userRepository, 100, 600,
+      now::get);
+
+  @Test
+  @DisplayName("두 번째 조회부터는 DB 를 거치지 않는다")
+  void get_hitAfterFirstLoad() {
+    user(1L, "first");
+
+    assertThat(cache.get(1L).getNickname()).isEqualTo("first");
+    assertThat(cache.get(1L).getNickname()).isEqualTo("first");
+
+    verify(userRepository, times(1)).findById(1L);
+    assertThat(cache.stats().hitCount()).isEqualTo(1);
+    assertThat(cache.stats().missCount()).isEqualTo(1);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("없는 유저는 NOT_FOUND_USER 이고 캐시에 남지 않는다")
+  void get_missingUser_notCached() {
+    when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+    assertThatThrownBy(() -> cache.get(2L))
+        .isInstanceOf(CustomException.class)
+        .extracting("errorCode").isEqualTo(ErrorCode.NOT_FOUND_USER);
+    assertThat(cache.size()).isZero();
+
+    // 나중에 가입하면 바로 보인다.
+    user(2L, "later");
+    assertThat(cache.get(2L).getNickname()).isEqualTo("later");
+    assertThatThrownBy(() -> cache.get(null)).isInstanceOf(CustomException.class);
+  }
+
+  @Test
+  @DisplayName("evict 하면 다음 조회에서 바뀐 닉네임을 다시 읽는다")
+  void evict_reloads() {
+    user(3L, "before");
+    cache.get(3L);
+    user(3L, "after");
+
+    assertThat(cache.get(3L).getNickname()).isEqualTo("before");
+    cache.evict(3L);
+    assertThat(cache.get(3L).getNickname()).isEqualTo("after");
+  }
+
+  @Test
+  @DisplayName("TTL 이 지나면 다시 DB 에서 읽는다")
+  void ttl_expires() {
+    user(4L, "before");
+    cache.get(4L);
+    user(4L, "after");
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(599));
+    assertThat(cache.get(4L).getNickname()).isEqualTo("before");
+    now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    assertThat(cache.get(4L).getNickname()).isEqualTo("after");
+  }
+
+  @Test
+  @DisplayName("적중/미스 수와 크기를 cache 지표로 노출")
+  void metrics() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    new ChatMetricsConfig().userSummaryCacheMetrics(cache).bindTo(registry);
+    user(5L, "metrics");
+
+    cache.get(5L);
+    cache.get(5L);
+    cache.get(5L);
+
+    assertThat(registry.get("cache.gets").tag("cache", "userSummary").tag("result", "hit")
+        .functionCounter().count()).isEqualTo(2.0);
+    assertThat(registry.get("cache.gets").tag("cache", "userSummary").tag("result", "miss")
+        .functionCounter().count()).isEqualTo(1.0);
+    assertThat(registry.get("cache.size").tag("cache", "userSummary").gauge().value())
+        .isEqualTo(1.0);
+  }
+
+  private void user(Long id, String nickname) {
+    when(userRepository.findById(id))
+        .thenReturn(Optional.of(User.builder().id(id).nickname(nickname).build()));
+  }
+}